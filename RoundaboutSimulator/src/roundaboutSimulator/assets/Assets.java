@@ -0,0 +1,266 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.assets;
+
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Images shared by every view. An image is decoded once, on a background
+ * thread, and converted to the format of the screen so it can be drawn
+ * quickly. The images are read from the "image" folder of the classpath,
+ * which is in src. When the classes were compiled without it, they are read
+ * from src/image, or else from image, in the working directory.
+ */
+public final class Assets
+{
+	public static final String	BLUE_CAR	= "blue_car.png";
+	public static final String	NO_RESULTS	= "no_results.png";
+	public static final String	TITLE		= "title.png";
+
+	private static final String	FOLDER		= "image";
+
+	// Folders of the working directory read when the classpath lacks an image
+	private static final File[]	FALLBACKS	= { new File("src", FOLDER), new File(FOLDER) };
+
+	private static final ConcurrentMap<String, ImageTask>	s_images	= new ConcurrentHashMap<String, ImageTask>();
+	private static final Executor							s_loader	= createLoader();
+
+	private Assets()
+	{
+	}// Constructor
+
+	/**
+	 * Creates the thread that decodes the images. It doesn't keep the
+	 * application running.
+	 * 
+	 * @return Executor
+	 */
+	private static Executor createLoader()
+	{
+		return Executors.newSingleThreadExecutor(new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "Asset loader");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}// createLoader
+
+	/**
+	 * Starts decoding images in the background. Images already loaded or
+	 * loading are skipped.
+	 * 
+	 * @param names
+	 *            - file names, like BLUE_CAR
+	 */
+	public static void preload(String... names)
+	{
+		for (String name : names)
+		{
+			load(name);
+		}
+	}// preload
+
+	/**
+	 * Returns an image, waiting for it if it is still being decoded. It must
+	 * not be called while painting, use get(String, Component) instead.
+	 * 
+	 * @param name
+	 *            - file name, like BLUE_CAR
+	 * @return BufferedImage - null if the image couldn't be read
+	 */
+	public static BufferedImage get(String name)
+	{
+		try
+		{
+			return load(name).get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		catch (ExecutionException e)
+		{
+			return null;
+		}
+	}// get
+
+	/**
+	 * Returns an image without waiting for it. While it is being decoded, the
+	 * component is repainted once it is ready.
+	 * 
+	 * @param name
+	 *            - file name, like BLUE_CAR
+	 * @param waiting
+	 *            - Component drawing the image
+	 * @return BufferedImage - null while the image is decoded or if it couldn't
+	 *         be read
+	 */
+	public static BufferedImage get(String name, Component waiting)
+	{
+		ImageTask task = load(name);
+		if (!task.isDone())
+		{
+			task.addWaiting(waiting);
+
+			// Checked again, in case the decoding ended before the component
+			// was added
+			if (!task.isDone()) return null;
+		}
+		return get(name);
+	}// get(String, Component)
+
+	/**
+	 * Returns the decoding of an image, starting it if needed.
+	 * 
+	 * @param name
+	 *            - file name
+	 * @return ImageTask - image, null if it couldn't be read
+	 */
+	private static ImageTask load(final String name)
+	{
+		ImageTask image = s_images.get(name);
+		if (image == null)
+		{
+			ImageTask task = new ImageTask(new Callable<BufferedImage>()
+			{
+				@Override
+				public BufferedImage call()
+				{
+					return read(name);
+				}
+			});
+
+			image = s_images.putIfAbsent(name, task);
+			if (image == null)
+			{
+				image = task;
+				s_loader.execute(task);
+			}
+		}
+		return image;
+	}// load
+
+	/**
+	 * Reads and decodes an image.
+	 * 
+	 * @param name
+	 *            - file name
+	 * @return BufferedImage - null if it couldn't be read
+	 */
+	private static BufferedImage read(String name)
+	{
+		try
+		{
+			BufferedImage image = null;
+			URL resource = Assets.class.getResource("/" + FOLDER + "/" + name);
+			if (resource != null)
+			{
+				image = ImageIO.read(resource);
+			}
+			else
+			{
+				for (File folder : FALLBACKS)
+				{
+					File file = new File(folder, name);
+					if (file.isFile())
+					{
+						image = ImageIO.read(file);
+						break;
+					}
+				}
+			}
+
+			if (image != null) return toCompatibleImage(image);
+		}
+		catch (IOException ex)
+		{
+			// Reported below
+		}
+
+		System.out.println("Erreur: L'image " + name + " n'a pas pu ouvrir!");
+		return null;
+	}// read
+
+	/**
+	 * Copies an image in the format of the screen, which is drawn without
+	 * conversion. Without a screen, the image is kept as it is.
+	 * 
+	 * @param image
+	 *            - BufferedImage
+	 * @return BufferedImage
+	 */
+	private static BufferedImage toCompatibleImage(BufferedImage image)
+	{
+		if (GraphicsEnvironment.isHeadless()) return image;
+
+		GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+		if (image.getColorModel().equals(configuration.getColorModel())) return image;
+
+		BufferedImage compatible = configuration.createCompatibleImage(image.getWidth(), image.getHeight(), image.getTransparency());
+		Graphics2D g2d = compatible.createGraphics();
+		g2d.drawImage(image, 0, 0, null);
+		g2d.dispose();
+		return compatible;
+	}// toCompatibleImage
+
+	/**
+	 * Decoding of an image, which repaints the components waiting for it once
+	 * it is over.
+	 */
+	private static class ImageTask extends FutureTask<BufferedImage>
+	{
+		private final CopyOnWriteArrayList<Component>	m_waiting	= new CopyOnWriteArrayList<Component>();
+
+		ImageTask(Callable<BufferedImage> callable)
+		{
+			super(callable);
+		}
+
+		/**
+		 * Repaints a component once the image is decoded.
+		 * 
+		 * @param component
+		 *            - Component
+		 */
+		void addWaiting(Component component)
+		{
+			m_waiting.addIfAbsent(component);
+		}
+
+		@Override
+		protected void done()
+		{
+			for (Component component : m_waiting)
+			{
+				component.repaint();
+			}
+			m_waiting.clear();
+		}// done Override
+	}// class ImageTask
+
+}// class Assets
@@ -4,12 +4,16 @@
 
 package roundaboutSimulator.main;
 
+import roundaboutSimulator.assets.Assets;
 import roundaboutSimulator.ui.RenderWindow;
 
 public class MainClass
 {
 	public static void main(String args[])
 	{
+		// The images are decoded while the window is built
+		Assets.preload(Assets.BLUE_CAR, Assets.NO_RESULTS, Assets.TITLE);
+
 		@SuppressWarnings("unused")
 		RenderWindow window = new RenderWindow();
 	}// main
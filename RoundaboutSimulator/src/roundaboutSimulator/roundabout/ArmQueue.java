@@ -0,0 +1,201 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+/**
+ * Vehicles driving on one side of an arm, linked from the first one (the
+ * head) to the last one (the tail). Each vehicle knows its leader, the
+ * vehicle right in front of it. The links are kept in the columns of the
+ * VehicleStore.
+ */
+public class ArmQueue
+{
+	private final VehicleStore	m_store;
+	private final boolean		m_isInbound;		// true for vehicles driving toward the center
+
+	private int					m_head				= VehicleStore.NONE;
+	private int					m_tail				= VehicleStore.NONE;
+	private int					m_size				= 0;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param store
+	 *            - VehicleStore holding the vehicles
+	 * @param isInbound
+	 *            true if the vehicles drive toward the center of the
+	 *            roundabout, false if they drive away from it
+	 */
+	public ArmQueue(VehicleStore store, boolean isInbound)
+	{
+		m_store = store;
+		m_isInbound = isInbound;
+	}// Constructor
+
+	/**
+	 * Inserts a vehicle behind the vehicles that are ahead of it. New vehicles
+	 * usually join at the tail, so this is done in constant time.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 */
+	public void add(int slot)
+	{
+		insertBehind(leaderAfterMove(slot, m_tail), slot);
+	}// add
+
+	/**
+	 * Keeps the queue in order after a vehicle moved. Vehicles at the same
+	 * place do not block each other, so one of them can get ahead of the
+	 * other.
+	 * 
+	 * @param slot
+	 *            - vehicle of this queue
+	 */
+	public void update(int slot)
+	{
+		int leader = m_store.m_leader[slot];
+		if (leader != VehicleStore.NONE && isAhead(m_store.m_radius[slot], m_store.m_radius[leader]))
+		{
+			leader = leaderAfterMove(slot, leader);
+			remove(slot);
+			insertBehind(leader, slot);
+		}
+	}// update
+
+	/**
+	 * Walks toward the head from a vehicle until it finds one that is not
+	 * behind the given vehicle.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 * @param from
+	 *            - vehicle where the search starts
+	 * @return int - NONE if the vehicle is ahead of all of them
+	 */
+	private int leaderAfterMove(int slot, int from)
+	{
+		int leader = from;
+		while (leader != VehicleStore.NONE && isAhead(m_store.m_radius[slot], m_store.m_radius[leader]))
+		{
+			leader = m_store.m_leader[leader];
+		}
+		return leader;
+	}// leaderAfterMove
+
+	/**
+	 * Links a vehicle right behind another one.
+	 * 
+	 * @param leader
+	 *            - vehicle, NONE to insert at the head
+	 * @param slot
+	 *            - vehicle to insert
+	 */
+	private void insertBehind(int leader, int slot)
+	{
+		int follower = (leader == VehicleStore.NONE) ? m_head : m_store.m_follower[leader];
+
+		m_store.m_leader[slot] = leader;
+		m_store.m_follower[slot] = follower;
+
+		if (leader == VehicleStore.NONE)
+			m_head = slot;
+		else
+			m_store.m_follower[leader] = slot;
+
+		if (follower == VehicleStore.NONE)
+			m_tail = slot;
+		else
+			m_store.m_leader[follower] = slot;
+
+		m_size++;
+	}// insertBehind
+
+	/**
+	 * Removes a vehicle from the queue.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 */
+	public void remove(int slot)
+	{
+		int leader = m_store.m_leader[slot];
+		int follower = m_store.m_follower[slot];
+
+		if (leader == VehicleStore.NONE)
+			m_head = follower;
+		else
+			m_store.m_follower[leader] = follower;
+
+		if (follower == VehicleStore.NONE)
+			m_tail = leader;
+		else
+			m_store.m_leader[follower] = leader;
+
+		m_store.m_leader[slot] = VehicleStore.NONE;
+		m_store.m_follower[slot] = VehicleStore.NONE;
+		m_size--;
+	}// remove
+
+	/**
+	 * Returns the closest vehicle strictly ahead of a vehicle of the queue.
+	 * 
+	 * @param slot
+	 *            - vehicle of this queue
+	 * @return int - NONE if the road is clear
+	 */
+	public int leaderOf(int slot)
+	{
+		int leader = m_store.m_leader[slot];
+
+		// Vehicles at the very same place are not ahead
+		while (leader != VehicleStore.NONE && m_store.m_radius[leader] == m_store.m_radius[slot])
+		{
+			leader = m_store.m_leader[leader];
+		}
+		return leader;
+	}// leaderOf
+
+	/**
+	 * Verifies if the first position is ahead of the second one.
+	 * 
+	 * @param radius
+	 *            - Meters
+	 * @param other
+	 *            - Meters
+	 * @return boolean
+	 */
+	private boolean isAhead(float radius, float other)
+	{
+		return m_isInbound ? radius < other : radius > other;
+	}
+
+	/**
+	 * Forgets every vehicle of the queue. The links are left to the store.
+	 */
+	public void clear()
+	{
+		m_head = VehicleStore.NONE;
+		m_tail = VehicleStore.NONE;
+		m_size = 0;
+	}// clear
+
+	// Getters
+	public int getHead()
+	{
+		return m_head;
+	}
+
+	public int getTail()
+	{
+		return m_tail;
+	}
+
+	public int size()
+	{
+		return m_size;
+	}
+
+}// class ArmQueue
@@ -0,0 +1,141 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+/**
+ * Times at which vehicles arrive in the simulation. The rate is exact, even
+ * when it is not a whole number of steps, and a step can receive any number of
+ * vehicles.
+ */
+public class ArrivalProcess
+{
+	public enum Type
+	{
+		DETERMINISTIC,	// Same time between every arrival
+		POISSON		// Arrivals independent of each other
+	};
+
+	private Type			m_type			= Type.DETERMINISTIC;
+	private double			m_rate			= 1;				// Cars per minute
+
+	private RandomStream	m_random;
+	private double			m_nextArrival	= 0;				// Milliseconds
+	private double			m_time			= 0;				// Milliseconds
+
+	/**
+	 * Creates a deterministic process of one car per minute. It needs a
+	 * stream from reset(RandomStream) before drawing Poisson arrivals.
+	 */
+	public ArrivalProcess()
+	{
+	}// Constructor (default)
+
+	/**
+	 * Restarts the arrivals at time 0. A deterministic process has its first
+	 * arrival at time 0.
+	 * 
+	 * @param random
+	 *            - stream the Poisson arrivals are drawn from
+	 */
+	public void reset(RandomStream random)
+	{
+		m_random = random;
+		m_time = 0;
+		m_nextArrival = (m_type == Type.POISSON) ? headway() : 0;
+	}// reset
+
+	/**
+	 * Tells if the next vehicle arrives before the given time. Called with the
+	 * end of a step, and followed by nextArrival() while it is true, it gives
+	 * every arrival of the step in order.
+	 * 
+	 * @param time
+	 *            - end of the step, excluded (milliseconds)
+	 * @return boolean
+	 */
+	public boolean hasArrivalBefore(double time)
+	{
+		m_time = time;
+		return m_nextArrival < time;
+	}// hasArrivalBefore
+
+	/**
+	 * Returns the time of the next vehicle, and moves on to the one after it.
+	 * 
+	 * @return long - milliseconds, truncated
+	 */
+	public long nextArrival()
+	{
+		long arrival = (long) m_nextArrival;
+		m_nextArrival += headway();
+		return arrival;
+	}// nextArrival
+
+	/**
+	 * Returns the time until the next arrival.
+	 * 
+	 * @return double - milliseconds
+	 */
+	private double headway()
+	{
+		double mean = 60000.0 / m_rate;
+		if (m_type == Type.POISSON)
+		{
+			return -Math.log(1 - m_random.nextDouble()) * mean;
+		}
+		return mean;
+	}// headway
+
+	// Getters
+	public Type getType()
+	{
+		return m_type;
+	}
+
+	public double getRate()
+	{
+		return m_rate;
+	}
+
+	// Setters
+	/**
+	 * Sets how the time between arrivals is chosen. The next arrival is drawn
+	 * again with the new type.
+	 * 
+	 * @param type
+	 *            - Type
+	 */
+	public void setType(Type type)
+	{
+		if (type != m_type)
+		{
+			m_type = type;
+			m_nextArrival = m_time + headway();
+		}
+	}
+
+	/**
+	 * Sets the mean number of arrivals per minute. The wait for the next
+	 * arrival is scaled to the new rate.
+	 * 
+	 * @param rate
+	 *            - cars per minute, above zero
+	 * @throws IllegalArgumentException
+	 *             if the rate isn't above zero
+	 */
+	public void setRate(double rate) throws IllegalArgumentException
+	{
+		if (!(rate > 0))
+		{
+			throw new IllegalArgumentException();
+		}
+		if (m_nextArrival > m_time)
+		{
+			m_nextArrival = m_time + (m_nextArrival - m_time) * m_rate / rate;
+		}
+		m_rate = rate;
+	}
+
+}// class ArrivalProcess
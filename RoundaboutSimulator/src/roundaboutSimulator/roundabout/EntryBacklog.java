@@ -0,0 +1,132 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+/**
+ * Vehicles that arrived on an arm but have no room on the road yet. Only
+ * their arrival time and destination are kept, in order of arrival, until
+ * they become real vehicles.
+ */
+public class EntryBacklog
+{
+	private static final int	INITIAL_CAPACITY	= 16;
+
+	private long[]				m_arrivalTimes		= new long[INITIAL_CAPACITY];	// Milliseconds
+	private short[]				m_destinations		= new short[INITIAL_CAPACITY];
+
+	private int					m_head				= 0;
+	private int					m_size				= 0;
+
+	/**
+	 * Adds a vehicle at the end of the backlog.
+	 * 
+	 * @param arrivalTime
+	 *            - milliseconds
+	 * @param destination
+	 *            - lane
+	 */
+	public void add(long arrivalTime, int destination)
+	{
+		if (m_size == m_arrivalTimes.length) grow();
+
+		int index = (m_head + m_size) % m_arrivalTimes.length;
+		m_arrivalTimes[index] = arrivalTime;
+		m_destinations[index] = (short) destination;
+		m_size++;
+	}// add
+
+	/**
+	 * Doubles the capacity, putting the first vehicle back at index 0.
+	 */
+	private void grow()
+	{
+		int capacity = 2 * m_arrivalTimes.length;
+		long[] arrivalTimes = new long[capacity];
+		short[] destinations = new short[capacity];
+		for (int i = 0; i < m_size; i++)
+		{
+			int index = (m_head + i) % m_arrivalTimes.length;
+			arrivalTimes[i] = m_arrivalTimes[index];
+			destinations[i] = m_destinations[index];
+		}
+		m_arrivalTimes = arrivalTimes;
+		m_destinations = destinations;
+		m_head = 0;
+	}// grow
+
+	/**
+	 * Removes the first vehicle of the backlog.
+	 */
+	public void remove()
+	{
+		m_head = (m_head + 1) % m_arrivalTimes.length;
+		m_size--;
+	}// remove
+
+	/**
+	 * Removes every vehicle.
+	 */
+	public void clear()
+	{
+		m_head = 0;
+		m_size = 0;
+	}// clear
+
+	// Getters
+	/**
+	 * Returns the arrival time of the first vehicle.
+	 * 
+	 * @return int - milliseconds
+	 */
+	public long getFirstArrivalTime()
+	{
+		return m_arrivalTimes[m_head];
+	}
+
+	/**
+	 * Returns the destination of the first vehicle.
+	 * 
+	 * @return int - lane
+	 */
+	public int getFirstDestination()
+	{
+		return m_destinations[m_head];
+	}
+
+	/**
+	 * Returns the arrival time of a vehicle.
+	 * 
+	 * @param index
+	 *            - rank of the vehicle, 0 for the first one
+	 * @return int - milliseconds
+	 */
+	public long getArrivalTime(int index)
+	{
+		return m_arrivalTimes[(m_head + index) % m_arrivalTimes.length];
+	}
+
+	/**
+	 * Returns the destination of a vehicle.
+	 * 
+	 * @param index
+	 *            - rank of the vehicle, 0 for the first one
+	 * @return int - lane
+	 */
+	public int getDestination(int index)
+	{
+		return m_destinations[(m_head + index) % m_arrivalTimes.length];
+	}
+
+	public boolean isEmpty()
+	{
+		return m_size == 0;
+	}
+
+	public int size()
+	{
+		return m_size;
+	}
+
+}// class EntryBacklog
@@ -0,0 +1,135 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+/**
+ * Figures kept of the statistics of previous settings once they are over.
+ * Only the overall histogram is copied, not the histograms of the routes, so
+ * an epoch takes the same memory whatever the number of lanes.
+ */
+public class EpochSummary
+{
+	private final long				m_count;
+	private final double			m_mean;				// Milliseconds
+	private final double			m_variance;			// Squared milliseconds
+	private final int				m_min;				// Milliseconds
+	private final int				m_max;				// Milliseconds
+
+	private final long				m_nbGoodTimes;
+	private final long				m_nbMediumTimes;
+	private final long				m_nbBadTimes;
+
+	private final LifeTimeHistogram	m_histogram			= new LifeTimeHistogram();
+
+	private final long				m_startTime;		// Milliseconds
+	private final long				m_endTime;			// Milliseconds
+
+	/**
+	 * Copies the figures of statistics that are over.
+	 * 
+	 * @param statistics
+	 *            - LifeTimeStatistics whose end time is set
+	 */
+	public EpochSummary(LifeTimeStatistics statistics)
+	{
+		m_count = statistics.getCount();
+		m_mean = statistics.getMean();
+		m_variance = statistics.getVariance();
+		m_min = statistics.getMin();
+		m_max = statistics.getMax();
+		m_nbGoodTimes = statistics.getNbGoodTimes();
+		m_nbMediumTimes = statistics.getNbMediumTimes();
+		m_nbBadTimes = statistics.getNbBadTimes();
+		m_histogram.add(statistics.getHistogram());
+		m_startTime = statistics.getStartTime();
+		m_endTime = statistics.getEndTime();
+	}// Constructor
+
+	// Getters
+	public long getCount()
+	{
+		return m_count;
+	}
+
+	/**
+	 * Returns the mean life time.
+	 * 
+	 * @return double - milliseconds, 0 if there was no vehicle
+	 */
+	public double getMean()
+	{
+		return m_mean;
+	}
+
+	/**
+	 * Returns the sample variance of the life times.
+	 * 
+	 * @return double - squared milliseconds, 0 if there were less than two
+	 *         vehicles
+	 */
+	public double getVariance()
+	{
+		return m_variance;
+	}
+
+	/**
+	 * Returns the sample standard deviation of the life times.
+	 * 
+	 * @return double - milliseconds
+	 */
+	public double getStandardDeviation()
+	{
+		return Math.sqrt(m_variance);
+	}
+
+	public int getMin()
+	{
+		return m_min;
+	}
+
+	public int getMax()
+	{
+		return m_max;
+	}
+
+	/**
+	 * Returns the life time under which the given percentage of the vehicles
+	 * were.
+	 * 
+	 * @param percentile
+	 *            - between 0 and 100
+	 * @return int - milliseconds, 0 if there was no vehicle
+	 */
+	public int getPercentile(double percentile)
+	{
+		return m_histogram.getValueAtPercentile(percentile);
+	}
+
+	public long getNbGoodTimes()
+	{
+		return m_nbGoodTimes;
+	}
+
+	public long getNbMediumTimes()
+	{
+		return m_nbMediumTimes;
+	}
+
+	public long getNbBadTimes()
+	{
+		return m_nbBadTimes;
+	}
+
+	public long getStartTime()
+	{
+		return m_startTime;
+	}
+
+	public long getEndTime()
+	{
+		return m_endTime;
+	}
+
+}// class EpochSummary
@@ -0,0 +1,142 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of life times in milliseconds, with buckets growing with the
+ * values. Life times under 128 ms are exact. Above, each power of two
+ * is cut in SUB_BUCKETS buckets, so a bucket is never wider than 1 / 128 of
+ * its values. The memory is fixed and recording a value takes constant time.
+ */
+public class LifeTimeHistogram
+{
+	private static final int	SUB_BITS	= 7;
+	private static final int	SUB_BUCKETS	= 1 << SUB_BITS;
+
+	// Enough buckets for every positive int
+	private static final int	NB_BUCKETS	= (32 - SUB_BITS) * SUB_BUCKETS;
+
+	private final int[]			m_counts	= new int[NB_BUCKETS];
+	private long				m_count		= 0;
+	private int					m_max		= 0;					// Milliseconds
+
+	/**
+	 * Adds a life time.
+	 * 
+	 * @param lifeTime
+	 *            - milliseconds, negative values count as 0
+	 */
+	public void record(int lifeTime)
+	{
+		if (lifeTime < 0) lifeTime = 0;
+
+		m_counts[bucketOf(lifeTime)]++;
+		m_count++;
+		if (lifeTime > m_max) m_max = lifeTime;
+	}// record
+
+	/**
+	 * Adds every life time of another histogram.
+	 * 
+	 * @param other
+	 *            - LifeTimeHistogram
+	 */
+	public void add(LifeTimeHistogram other)
+	{
+		for (int i = 0; i < NB_BUCKETS; i++)
+		{
+			m_counts[i] += other.m_counts[i];
+		}
+		m_count += other.m_count;
+		if (other.m_max > m_max) m_max = other.m_max;
+	}// add
+
+	/**
+	 * Forgets every life time.
+	 */
+	public void clear()
+	{
+		Arrays.fill(m_counts, 0);
+		m_count = 0;
+		m_max = 0;
+	}// clear
+
+	/**
+	 * Returns the life time under which the given percentage of the life
+	 * times are. The result is the highest value of its bucket, but never
+	 * more than the longest life time.
+	 * 
+	 * @param percentile
+	 *            - between 0 and 100
+	 * @return int - milliseconds, 0 if the histogram is empty
+	 */
+	public int getValueAtPercentile(double percentile)
+	{
+		if (m_count == 0) return 0;
+
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * m_count));
+		long seen = 0;
+		for (int i = 0; i < NB_BUCKETS; i++)
+		{
+			seen += m_counts[i];
+			if (seen >= rank)
+			{
+				return Math.min(m_max, highestValueOf(i));
+			}
+		}
+		return m_max;
+	}// getValueAtPercentile
+
+	/**
+	 * Returns the bucket of a life time.
+	 * 
+	 * @param value
+	 *            - milliseconds, not negative
+	 * @return int - index of the bucket
+	 */
+	private static int bucketOf(int value)
+	{
+		if (value < SUB_BUCKETS) return value;
+
+		// Keeps the SUB_BITS bits that follow the highest one
+		int shift = 31 - Integer.numberOfLeadingZeros(value) - SUB_BITS;
+		return (shift + 1) * SUB_BUCKETS + ((value >>> shift) & (SUB_BUCKETS - 1));
+	}// bucketOf
+
+	/**
+	 * Returns the highest life time of a bucket.
+	 * 
+	 * @param bucket
+	 *            - index of the bucket
+	 * @return int - milliseconds
+	 */
+	private static int highestValueOf(int bucket)
+	{
+		if (bucket < SUB_BUCKETS) return bucket;
+
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return (int) Math.min(Integer.MAX_VALUE, lowest + (1L << shift) - 1);
+	}// highestValueOf
+
+	// Getters
+	public long getCount()
+	{
+		return m_count;
+	}
+
+	/**
+	 * Returns the longest life time.
+	 * 
+	 * @return int - milliseconds
+	 */
+	public int getMax()
+	{
+		return m_max;
+	}
+
+}// class LifeTimeHistogram
@@ -0,0 +1,312 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+import java.util.Arrays;
+
+/**
+ * Statistics of the life time of the vehicles that went through the
+ * simulation. Each vehicle updates them in constant time and memory, however
+ * long the simulation runs. Besides the mean and the categories, histograms
+ * give the percentiles of the life times, overall and for each route.
+ */
+public class LifeTimeStatistics
+{
+	private long	m_count			= 0;
+	private long	m_sum			= 0;					// Milliseconds
+	private double	m_mean			= 0;					// Milliseconds
+	private double	m_squares		= 0;					// Sum of the squared differences to the mean
+	private int		m_min			= Integer.MAX_VALUE;	// Milliseconds
+	private int		m_max			= 0;					// Milliseconds
+
+	// Vehicles counted by life time category
+	private long	m_nbGoodTimes	= 0;
+	private long	m_nbMediumTimes	= 0;
+	private long	m_nbBadTimes	= 0;
+
+	private int		m_mediumTime	= 0;					// Milliseconds
+	private int		m_badTime		= 0;					// Milliseconds
+
+	private LifeTimeHistogram	m_histogram	= new LifeTimeHistogram();
+
+	// One histogram per route, indexed by source * m_nbLane + destination.
+	// They are created by the first vehicle that takes their route.
+	private LifeTimeHistogram[]	m_routes	= new LifeTimeHistogram[0];
+	private int					m_nbLane	= 0;
+
+	// Simulated time covered by the statistics
+	private long				m_startTime	= 0;	// Milliseconds
+	private long				m_endTime	= -1;	// Milliseconds, -1 while they go on
+
+	/**
+	 * Adds the life time of a vehicle and records it in the histogram of its
+	 * route.
+	 * 
+	 * @param lifeTime
+	 *            - milliseconds
+	 * @param source
+	 *            - lane the vehicle came from
+	 * @param destination
+	 *            - lane the vehicle left by
+	 */
+	public void add(int lifeTime, int source, int destination)
+	{
+		add(lifeTime);
+
+		int route = source * m_nbLane + destination;
+		if (m_routes[route] == null)
+		{
+			m_routes[route] = new LifeTimeHistogram();
+		}
+		m_routes[route].record(lifeTime);
+	}// add
+
+	/**
+	 * Adds the life time of a vehicle whose route isn't known.
+	 * 
+	 * @param lifeTime
+	 *            - milliseconds
+	 */
+	public void add(int lifeTime)
+	{
+		m_count++;
+		m_sum += lifeTime;
+
+		// Welford's update keeps the variance accurate without storing the
+		// values
+		double delta = lifeTime - m_mean;
+		m_mean += delta / m_count;
+		m_squares += delta * (lifeTime - m_mean);
+
+		if (lifeTime < m_min) m_min = lifeTime;
+		if (lifeTime > m_max) m_max = lifeTime;
+		m_histogram.record(lifeTime);
+
+		if (0 <= lifeTime && lifeTime < m_mediumTime)					// Bon temps
+		{
+			m_nbGoodTimes++;
+		}
+		else
+			if (m_mediumTime <= lifeTime && lifeTime < m_badTime)		// Moyen Temps
+			{
+				m_nbMediumTimes++;
+			}
+			else
+				if (m_badTime <= lifeTime)								// Mauvais temps
+				{
+					m_nbBadTimes++;
+				}
+	}// add
+
+	/**
+	 * Forgets every life time.
+	 */
+	public void clear()
+	{
+		m_count = 0;
+		m_sum = 0;
+		m_mean = 0;
+		m_squares = 0;
+		m_min = Integer.MAX_VALUE;
+		m_max = 0;
+		m_nbGoodTimes = 0;
+		m_nbMediumTimes = 0;
+		m_nbBadTimes = 0;
+		m_histogram.clear();
+		Arrays.fill(m_routes, null);
+	}// clear
+
+	/**
+	 * Forgets every life time and sets the number of lanes the routes go
+	 * between.
+	 * 
+	 * @param nbLane
+	 *            - int
+	 */
+	public void reset(int nbLane)
+	{
+		clear();
+		if (nbLane != m_nbLane)
+		{
+			m_nbLane = nbLane;
+			m_routes = new LifeTimeHistogram[nbLane * nbLane];
+		}
+	}// reset
+
+	// Getters
+	public long getCount()
+	{
+		return m_count;
+	}
+
+	/**
+	 * Returns the sum of the life times.
+	 * 
+	 * @return long - milliseconds
+	 */
+	public long getSum()
+	{
+		return m_sum;
+	}
+
+	/**
+	 * Returns the mean life time.
+	 * 
+	 * @return double - milliseconds, 0 if there is no vehicle
+	 */
+	public double getMean()
+	{
+		return m_mean;
+	}
+
+	/**
+	 * Returns the sample variance of the life times.
+	 * 
+	 * @return double - squared milliseconds, 0 if there are less than two
+	 *         vehicles
+	 */
+	public double getVariance()
+	{
+		return (m_count > 1) ? m_squares / (m_count - 1) : 0;
+	}
+
+	/**
+	 * Returns the sample standard deviation of the life times.
+	 * 
+	 * @return double - milliseconds
+	 */
+	public double getStandardDeviation()
+	{
+		return Math.sqrt(getVariance());
+	}
+
+	/**
+	 * Returns the shortest life time.
+	 * 
+	 * @return int - milliseconds, 0 if there is no vehicle
+	 */
+	public int getMin()
+	{
+		return (m_count > 0) ? m_min : 0;
+	}
+
+	/**
+	 * Returns the longest life time.
+	 * 
+	 * @return int - milliseconds
+	 */
+	public int getMax()
+	{
+		return m_max;
+	}
+
+	/**
+	 * Returns the life time under which the given percentage of the vehicles
+	 * are, for example 99 for the 99th percentile.
+	 * 
+	 * @param percentile
+	 *            - between 0 and 100
+	 * @return int - milliseconds, 0 if there is no vehicle
+	 */
+	public int getPercentile(double percentile)
+	{
+		return m_histogram.getValueAtPercentile(percentile);
+	}
+
+	public long getStartTime()
+	{
+		return m_startTime;
+	}
+
+	/**
+	 * Returns the end of the time covered by the statistics.
+	 * 
+	 * @return long - milliseconds, -1 while vehicles are still added
+	 */
+	public long getEndTime()
+	{
+		return m_endTime;
+	}
+
+	/**
+	 * Returns the histogram of every life time.
+	 * 
+	 * @return LifeTimeHistogram
+	 */
+	public LifeTimeHistogram getHistogram()
+	{
+		return m_histogram;
+	}
+
+	/**
+	 * Returns the histogram of the vehicles that took a route.
+	 * 
+	 * @param source
+	 *            - lane the vehicles came from
+	 * @param destination
+	 *            - lane the vehicles left by
+	 * @return LifeTimeHistogram - null if no vehicle took this route
+	 */
+	public LifeTimeHistogram getHistogram(int source, int destination)
+	{
+		return m_routes[source * m_nbLane + destination];
+	}
+
+	public long getNbGoodTimes()
+	{
+		return m_nbGoodTimes;
+	}
+
+	public long getNbMediumTimes()
+	{
+		return m_nbMediumTimes;
+	}
+
+	public long getNbBadTimes()
+	{
+		return m_nbBadTimes;
+	}
+
+	// Setters
+	/**
+	 * Sets the start of the time covered by the statistics.
+	 * 
+	 * @param startTime
+	 *            - milliseconds
+	 */
+	public void setStartTime(long startTime)
+	{
+		m_startTime = startTime;
+		m_endTime = -1;
+	}
+
+	/**
+	 * Sets the end of the time covered by the statistics, once no vehicle is
+	 * added anymore.
+	 * 
+	 * @param endTime
+	 *            - milliseconds
+	 */
+	public void setEndTime(long endTime)
+	{
+		m_endTime = endTime;
+	}
+
+	/**
+	 * Sets the limits of the life time categories. The vehicles already
+	 * counted keep their category.
+	 * 
+	 * @param mediumTime
+	 *            - shortest medium time (milliseconds)
+	 * @param badTime
+	 *            - shortest bad time (milliseconds)
+	 */
+	public void setCategories(int mediumTime, int badTime)
+	{
+		m_mediumTime = mediumTime;
+		m_badTime = badTime;
+	}
+
+}// class LifeTimeStatistics
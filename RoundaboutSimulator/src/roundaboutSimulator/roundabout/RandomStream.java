@@ -0,0 +1,122 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+/**
+ * Splittable stream of pseudo-random numbers (SplitMix64). A stream is not
+ * shared between threads: each user splits its own independent stream from a
+ * parent, so the numbers only depend on the seed of the first stream.
+ */
+public class RandomStream
+{
+	// Odd constant close to 2^64 divided by the golden ratio
+	public static final long	GOLDEN_GAMMA	= 0x9E3779B97F4A7C15L;
+
+	private long				m_seed;
+	private final long			m_gamma;								// Always odd
+
+	/**
+	 * Creates a stream determined by a seed.
+	 * 
+	 * @param seed
+	 *            - long
+	 */
+	public RandomStream(long seed)
+	{
+		this(seed, GOLDEN_GAMMA);
+	}// Constructor
+
+	private RandomStream(long seed, long gamma)
+	{
+		m_seed = seed;
+		m_gamma = gamma;
+	}// Constructor
+
+	/**
+	 * Creates a new stream whose numbers are independent from the ones of
+	 * this stream. It consumes two numbers of this stream.
+	 * 
+	 * @return RandomStream
+	 */
+	public RandomStream split()
+	{
+		return new RandomStream(nextLong(), mixGamma(nextSeed()));
+	}// split
+
+	/**
+	 * Returns the next 64 random bits.
+	 * 
+	 * @return long
+	 */
+	public long nextLong()
+	{
+		return mix64(nextSeed());
+	}
+
+	/**
+	 * Returns a number uniformly distributed between 0 (included) and 1
+	 * (excluded).
+	 * 
+	 * @return double
+	 */
+	public double nextDouble()
+	{
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * Returns an integer uniformly distributed between 0 (included) and bound
+	 * (excluded).
+	 * 
+	 * @param bound
+	 *            - positive int
+	 * @return int
+	 */
+	public int nextInt(int bound)
+	{
+		// Rejects the last incomplete range of values so there is no bias
+		int r = (int) (nextLong() >>> 33);
+		for (int u = r; u - (r = u % bound) + bound - 1 < 0; u = (int) (nextLong() >>> 33))
+			;
+		return r;
+	}
+
+	private long nextSeed()
+	{
+		return m_seed += m_gamma;
+	}
+
+	/**
+	 * Scrambles the bits of a value. Close values give unrelated results.
+	 * 
+	 * @param z
+	 *            - long
+	 * @return long
+	 */
+	public static long mix64(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Turns a value into a gamma with enough bit transitions to give a good
+	 * stream.
+	 * 
+	 * @param z
+	 *            - long
+	 * @return long - odd
+	 */
+	private static long mixGamma(long z)
+	{
+		z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+		z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		int n = Long.bitCount(z ^ (z >>> 1));
+		return (n < 24) ? z ^ 0xAAAAAAAAAAAAAAAAL : z;
+	}
+
+}// class RandomStream
@@ -0,0 +1,139 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+import java.util.Arrays;
+
+/**
+ * Vehicles circulating inside the roundabout, sorted by increasing theta.
+ * 
+ * Every circulating vehicle turns by the same angle at each step, so the
+ * order never changes while they move. Only the vehicles entering or leaving
+ * the ring modify the index.
+ */
+public class RingIndex
+{
+	private static final int	INITIAL_CAPACITY	= 16;
+
+	private final VehicleStore	m_store;
+
+	private int[]				m_slots				= new int[INITIAL_CAPACITY];
+	private int					m_size				= 0;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param store
+	 *            - VehicleStore holding the vehicles
+	 */
+	public RingIndex(VehicleStore store)
+	{
+		m_store = store;
+	}// Constructor
+
+	/**
+	 * Inserts a vehicle at its place in the ring.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 */
+	public void add(int slot)
+	{
+		if (m_size == m_slots.length)
+		{
+			m_slots = Arrays.copyOf(m_slots, 2 * m_slots.length);
+		}
+
+		int index = upperBound(m_store.m_theta[slot]);
+		System.arraycopy(m_slots, index, m_slots, index + 1, m_size - index);
+		m_slots[index] = slot;
+		m_size++;
+	}// add
+
+	/**
+	 * Removes the vehicle at the given position.
+	 * 
+	 * @param index
+	 *            - int
+	 */
+	public void remove(int index)
+	{
+		System.arraycopy(m_slots, index + 1, m_slots, index, m_size - index - 1);
+		m_size--;
+	}// remove
+
+	/**
+	 * Removes every vehicle from the ring.
+	 */
+	public void clear()
+	{
+		m_size = 0;
+	}// clear
+
+	/**
+	 * Returns the position of the first vehicle whose theta is greater than or
+	 * equal to the given angle.
+	 * 
+	 * @param theta
+	 *            - radians
+	 * @return int - between 0 and size()
+	 */
+	public int lowerBound(float theta)
+	{
+		int low = 0;
+		int high = m_size;
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if (m_store.m_theta[m_slots[middle]] < theta)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}// lowerBound
+
+	/**
+	 * Returns the position of the first vehicle whose theta is strictly greater
+	 * than the given angle.
+	 * 
+	 * @param theta
+	 *            - radians
+	 * @return int - between 0 and size()
+	 */
+	public int upperBound(float theta)
+	{
+		int low = 0;
+		int high = m_size;
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if (m_store.m_theta[m_slots[middle]] <= theta)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}// upperBound
+
+	// Getters
+	/**
+	 * Returns the slot of the vehicle at the given position.
+	 * 
+	 * @param index
+	 *            - int
+	 * @return int - slot
+	 */
+	public int get(int index)
+	{
+		return m_slots[index];
+	}
+
+	public int size()
+	{
+		return m_size;
+	}
+
+}// class RingIndex
@@ -0,0 +1,157 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+import java.util.Arrays;
+
+/**
+ * Sum and count of the values added during the last seconds of simulated
+ * time. The values are kept in one bucket per second, in a ring that is as
+ * long as the window, so adding a value and reading the window take constant
+ * time and memory.
+ */
+public class RollingWindow
+{
+	private final long[]	m_sums;
+	private final int[]		m_counts;
+
+	// Sum and count of every bucket of the window
+	private long			m_sum		= 0;
+	private long			m_count		= 0;
+
+	private long			m_start		= 0;	// Milliseconds
+	private long			m_time		= 0;	// Milliseconds
+	private long			m_second	= 0;	// Second of the newest bucket
+
+	/**
+	 * Creates an empty window.
+	 * 
+	 * @param seconds
+	 *            - length of the window, above zero
+	 * @throws IllegalArgumentException
+	 *             if the length isn't above zero
+	 */
+	public RollingWindow(int seconds) throws IllegalArgumentException
+	{
+		if (seconds <= 0)
+		{
+			throw new IllegalArgumentException();
+		}
+		m_sums = new long[seconds];
+		m_counts = new int[seconds];
+	}// Constructor
+
+	/**
+	 * Empties the window and starts it at the given time.
+	 * 
+	 * @param time
+	 *            - milliseconds
+	 */
+	public void reset(long time)
+	{
+		Arrays.fill(m_sums, 0);
+		Arrays.fill(m_counts, 0);
+		m_sum = 0;
+		m_count = 0;
+		m_start = time;
+		m_time = time;
+		m_second = time / 1000;
+	}// reset
+
+	/**
+	 * Adds a value at the given time.
+	 * 
+	 * @param time
+	 *            - milliseconds, not before the previous time
+	 * @param value
+	 *            - long
+	 */
+	public void add(long time, long value)
+	{
+		advanceTo(time);
+
+		int bucket = (int) (m_second % m_sums.length);
+		m_sums[bucket] += value;
+		m_counts[bucket]++;
+		m_sum += value;
+		m_count++;
+	}// add
+
+	/**
+	 * Moves the window up to the given time. The buckets of the seconds that
+	 * leave the window are emptied.
+	 * 
+	 * @param time
+	 *            - milliseconds, not before the previous time
+	 */
+	public void advanceTo(long time)
+	{
+		long second = time / 1000;
+		if (second - m_second >= m_sums.length)
+		{
+			Arrays.fill(m_sums, 0);
+			Arrays.fill(m_counts, 0);
+			m_sum = 0;
+			m_count = 0;
+		}
+		else
+		{
+			for (long s = m_second + 1; s <= second; s++)
+			{
+				int bucket = (int) (s % m_sums.length);
+				m_sum -= m_sums[bucket];
+				m_count -= m_counts[bucket];
+				m_sums[bucket] = 0;
+				m_counts[bucket] = 0;
+			}
+		}
+		m_second = Math.max(m_second, second);
+		m_time = Math.max(m_time, time);
+	}// advanceTo
+
+	// Getters
+	public long getSum()
+	{
+		return m_sum;
+	}
+
+	public long getCount()
+	{
+		return m_count;
+	}
+
+	/**
+	 * Returns the mean of the values in the window.
+	 * 
+	 * @return double - 0 if the window is empty
+	 */
+	public double getMean()
+	{
+		return (m_count > 0) ? (double) m_sum / m_count : 0;
+	}
+
+	/**
+	 * Returns the time the window covers. It is shorter than the window while
+	 * the window hasn't been filled since its start.
+	 * 
+	 * @return int - milliseconds
+	 */
+	public int getDuration()
+	{
+		long oldest = (m_second - m_sums.length + 1) * 1000;
+		return (int) (m_time - Math.max(m_start, oldest));
+	}
+
+	/**
+	 * Returns the length of the window.
+	 * 
+	 * @return int - seconds
+	 */
+	public int getLength()
+	{
+		return m_sums.length;
+	}
+
+}// class RollingWindow
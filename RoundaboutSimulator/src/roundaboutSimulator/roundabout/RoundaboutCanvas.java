@@ -0,0 +1,272 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+import java.awt.Canvas;
+import java.awt.DisplayMode;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+
+/**
+ * View of a simulation drawn by its own thread, at the refresh rate of the
+ * screen, in the accelerated back buffers of a BufferStrategy. Swing doesn't
+ * decide when it is drawn, so every frame is shown. Between two states of the
+ * simulation, the vehicles are drawn where they would be at the time of the
+ * frame, so they move smoothly however slowly the simulation steps.
+ */
+public class RoundaboutCanvas extends Canvas implements Runnable
+{
+	private static final long			serialVersionUID		= -6350458611839715262L;
+
+	// Used when the screen doesn't tell its refresh rate
+	private static final int			DEFAULT_REFRESH_RATE	= 60;		// Hertz
+
+	private static final int			NB_BUFFERS				= 2;
+
+	// Above this time between two states, the vehicles jump to their new
+	// position, as after a pause
+	private static final long			MAX_INTERVAL			= 250000000L;	// Nanoseconds
+
+	private final SnapshotBuffer		m_snapshots;
+	private final RoundaboutRenderer	m_renderer				= new RoundaboutRenderer(this);
+
+	// Latest state of the simulation, and a copy of the state before it. A
+	// state starts when the simulation time changes.
+	private SimulationSnapshot			m_latest;
+	private SimulationSnapshot			m_previous				= new SimulationSnapshot();
+	private SimulationSnapshot			m_spare					= new SimulationSnapshot();
+	private boolean						m_hasPrevious			= false;
+	private long						m_latestTime			= 0;		// Nanoseconds, when the simulation reached it
+	private long						m_interval				= 0;		// Nanoseconds, from the previous state
+
+	// Set when the frame shown doesn't match the latest state anymore
+	private volatile boolean			m_isDirty				= true;
+	private int							m_width					= 0;		// Pixels, of the frame shown
+	private int							m_height				= 0;		// Pixels, of the frame shown
+	private float						m_alpha					= 0;		// Of the frame shown
+
+	private Thread						m_thread;
+	private volatile boolean			m_isRunning				= false;
+
+	/**
+	 * Creates a view of a simulation.
+	 * 
+	 * @param snapshots
+	 *            - the snapshots of the Simulation to display, read only by
+	 *            the thread of this view
+	 */
+	public RoundaboutCanvas(SnapshotBuffer snapshots)
+	{
+		m_snapshots = snapshots;
+
+		// The wheel zooms, dragging pans. Both ask for a frame with
+		// repaint().
+		new ViewportControl(m_renderer, this);
+	}// Constructor
+
+	/**
+	 * Starts drawing once the canvas can be shown.
+	 */
+	@Override
+	public void addNotify()
+	{
+		super.addNotify();
+		start();
+	}// addNotify Override
+
+	/**
+	 * Stops drawing before the buffers are released.
+	 */
+	@Override
+	public void removeNotify()
+	{
+		stop();
+		super.removeNotify();
+	}// removeNotify Override
+
+	/**
+	 * Asks the thread to draw again, when the window was covered for example.
+	 * The frame itself is never drawn by the event dispatch thread.
+	 */
+	@Override
+	public void paint(Graphics g)
+	{
+		m_isDirty = true;
+	}// paint Override
+
+	@Override
+	public void update(Graphics g)
+	{
+		m_isDirty = true;
+	}// update Override
+
+	/**
+	 * Starts the thread drawing the canvas. Does nothing if it already runs.
+	 */
+	private synchronized void start()
+	{
+		if (m_thread != null) return;
+
+		m_isRunning = true;
+		m_thread = new Thread(this, "Roundabout renderer");
+		m_thread.setDaemon(true);
+		m_thread.start();
+	}// start
+
+	/**
+	 * Stops the thread drawing the canvas. Returns once the current frame is
+	 * shown.
+	 */
+	private synchronized void stop()
+	{
+		if (m_thread == null) return;
+
+		m_isRunning = false;
+		try
+		{
+			m_thread.join();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		m_thread = null;
+	}// stop
+
+	@Override
+	public void run()
+	{
+		long frameTime = 1000000000L / getRefreshRate();	// Nanoseconds
+		long nextFrame = System.nanoTime();
+
+		while (m_isRunning)
+		{
+			if (getWidth() > 0 && getHeight() > 0) render();
+
+			// Waits for the next frame, or starts it right away if this one
+			// was late
+			nextFrame += frameTime;
+			long wait = nextFrame - System.nanoTime();
+			if (wait > 0)
+			{
+				try
+				{
+					Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+				}
+				catch (InterruptedException e)
+				{
+					return;
+				}
+			}
+			else
+				nextFrame = System.nanoTime();
+		}
+	}// run Override
+
+	/**
+	 * Returns the refresh rate of the screen showing the canvas.
+	 * 
+	 * @return int - Hertz
+	 */
+	private int getRefreshRate()
+	{
+		GraphicsConfiguration configuration = getGraphicsConfiguration();
+		if (configuration != null)
+		{
+			int refreshRate = configuration.getDevice().getDisplayMode().getRefreshRate();
+			if (refreshRate != DisplayMode.REFRESH_RATE_UNKNOWN) return refreshRate;
+		}
+		return DEFAULT_REFRESH_RATE;
+	}// getRefreshRate
+
+	/**
+	 * Draws a frame and shows it, unless nothing moved since the previous one.
+	 * The frame is drawn again if the buffers were lost while drawing it.
+	 */
+	private void render()
+	{
+		updateSnapshots();
+
+		long now = System.nanoTime();
+		float alpha = 1;
+		if (m_hasPrevious && m_interval > 0 && m_interval <= MAX_INTERVAL)
+		{
+			alpha = Math.min(1, (float) (now - m_latestTime) / m_interval);
+		}
+
+		// Still at the latest state, already shown
+		if (alpha >= 1 && m_alpha >= 1 && !m_isDirty && getWidth() == m_width && getHeight() == m_height) return;
+
+		m_isDirty = false;
+		m_width = getWidth();
+		m_height = getHeight();
+		m_alpha = alpha;
+
+		BufferStrategy strategy = getBufferStrategy();
+		if (strategy == null)
+		{
+			createBufferStrategy(NB_BUFFERS);
+			strategy = getBufferStrategy();
+		}
+
+		do
+		{
+			do
+			{
+				Graphics2D g2d = (Graphics2D) strategy.getDrawGraphics();
+				try
+				{
+					m_renderer.paint(g2d, m_latest, m_hasPrevious ? m_previous : null, alpha);
+				}
+				finally
+				{
+					g2d.dispose();
+				}
+			}
+			while (strategy.contentsRestored());
+
+			strategy.show();
+		}
+		while (strategy.contentsLost());
+
+		// Some systems queue the drawing, this shows the frame now
+		Toolkit.getDefaultToolkit().sync();
+	}// render
+
+	/**
+	 * Takes the latest snapshot. When the simulation time changed, the
+	 * previous snapshot is kept to draw the vehicles between both.
+	 */
+	private void updateSnapshots()
+	{
+		if (m_latest == null)
+		{
+			m_latest = m_snapshots.getLatest();
+			m_latestTime = m_latest.getStateTime();
+			return;
+		}
+		if (!m_snapshots.hasNewer()) return;
+
+		// Copied before the writer can reuse it
+		m_spare.copyVehicles(m_latest);
+		m_latest = m_snapshots.getLatest();
+
+		if (m_latest.getSimulationTime() != m_spare.getSimulationTime())
+		{
+			SimulationSnapshot previous = m_previous;
+			m_previous = m_spare;
+			m_spare = previous;
+			m_hasPrevious = true;
+
+			m_interval = m_latest.getStateTime() - m_latestTime;
+			m_latestTime = m_latest.getStateTime();
+		}
+		m_isDirty = true;
+	}// updateSnapshots
+
+}// class RoundaboutCanvas
@@ -0,0 +1,503 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+import roundaboutSimulator.assets.Assets;
+
+/**
+ * Draws snapshots of a simulation on a component: the roundabout, its
+ * vehicles and its traffic light. The vehicles can be drawn between their
+ * positions in two snapshots, so the drawing moves smoothly at a higher rate
+ * than the simulation steps.
+ * 
+ * The view can be zoomed and panned. The conversion from meters to pixels is
+ * computed once per frame, and the vehicles out of the visible area are
+ * skipped, so the time to draw a frame depends on the vehicles seen.
+ */
+public class RoundaboutRenderer
+{
+	public static final double		MIN_ZOOM			= 0.25;
+	public static final double		MAX_ZOOM			= 16;
+
+	private final Component			m_component;
+
+	private VehicleSprites			m_sprites;
+
+	// Being drawn
+	private SimulationSnapshot		m_snapshot;
+	private SimulationSnapshot		m_previous;		// null to draw m_snapshot as it is
+	private float					m_alpha;		// From m_previous (0) to m_snapshot (1)
+
+	// Viewport chosen by the user, guarded by the renderer. The zoom
+	// multiplies the default scale, the pan moves the center of the
+	// roundabout away from the center of the component.
+	private double					m_zoom				= 1;
+	private int						m_panX				= 0;	// Pixels
+	private int						m_panY				= 0;	// Pixels
+
+	// Meters to pixels of the component, computed once per frame
+	private final AffineTransform	m_transform			= new AffineTransform();
+	private float					m_pixelsPerMeter;
+	private int						m_centerX;				// Pixels, center of the roundabout
+	private int						m_centerY;				// Pixels, center of the roundabout
+	private final Rectangle			m_clip				= new Rectangle();	// Visible part of the frame
+
+	private int						m_radiusRoundaboutPixels;
+	private int						m_radiusCenterPixels;
+	private int						m_laneWidthInPixel;
+
+	// The roundabout without its vehicles and light. It is drawn again only
+	// when the component is resized, the viewport moves or the shape of the
+	// roundabout changes.
+	private BufferedImage			m_background;
+	private int						m_backgroundNbLane;
+	private int						m_backgroundRadius;
+	private AffineTransform			m_backgroundTransform	= new AffineTransform();
+
+	private final Color				GRASS_COLOR			= new Color(58, 157, 35);
+
+	/**
+	 * Creates a renderer drawing on a component. It takes the size, screen and
+	 * background color of the component.
+	 * 
+	 * @param component
+	 *            - Component drawn on
+	 */
+	public RoundaboutRenderer(Component component)
+	{
+		m_component = component;
+		Assets.preload(Assets.BLUE_CAR);
+	}// Constructor
+
+	/**
+	 * Converts meters to pixels. Use this method to keep proportions while
+	 * drawing
+	 * 
+	 * @param float - meters
+	 * @return int - Pixels
+	 */
+	public int meterToPixel(float meters)
+	{
+		int pixels = (int) (meters * m_pixelsPerMeter);
+
+		return pixels;
+	}// meterToPixel(float)
+
+	/**
+	 * Computes the conversion from meters to pixels for the frame being drawn.
+	 */
+	private void updateTransform()
+	{
+		double zoom;
+		int panX, panY;
+		synchronized (this)
+		{
+			zoom = m_zoom;
+			panX = m_panX;
+			panY = m_panY;
+		}
+
+		// The radius of the roundabout takes up a fraction of the screen.
+		final float fraction = 1 / 4f;
+
+		float pixelsPerMeter = fraction * Math.min(m_component.getWidth(), m_component.getHeight()) / (float) m_snapshot.getRadius();
+		m_pixelsPerMeter = (float) (pixelsPerMeter * zoom);
+		m_centerX = m_component.getWidth() / 2 + panX;
+		m_centerY = m_component.getHeight() / 2 + panY;
+		m_transform.setTransform(m_pixelsPerMeter, 0, 0, m_pixelsPerMeter, m_centerX, m_centerY);
+	}// updateTransform
+
+	/**
+	 * Converts meters to pixels. Use this method to keep proportions while
+	 * drawing
+	 * 
+	 * @param int - meters
+	 * @return int - Pixels
+	 */
+	public int meterToPixel(int meters)
+	{
+		return meterToPixel((float) meters);
+	}// meterToPixel(int)
+
+	/**
+	 * Converts pixels to meters. Use this method to keep proportions while
+	 * drawing
+	 * 
+	 * @param int - pixels
+	 * @return float - Meters
+	 */
+	public float pixelToMeter(int pixels)
+	{
+		float meters = (float) pixels / m_pixelsPerMeter;
+
+		return meters;
+	}// pixelToMeter
+
+	/**
+	 * Zooms around a point of the component, which stays in place.
+	 * 
+	 * @param factor
+	 *            - above 1 to zoom in, the zoom is kept between MIN_ZOOM and
+	 *            MAX_ZOOM
+	 * @param x
+	 *            - pixels, in the component
+	 * @param y
+	 *            - pixels, in the component
+	 */
+	public synchronized void zoom(double factor, int x, int y)
+	{
+		double zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, m_zoom * factor));
+
+		// The pan is scaled around the point, so the point shows the same
+		// place of the roundabout
+		int offsetX = x - m_component.getWidth() / 2;
+		int offsetY = y - m_component.getHeight() / 2;
+		m_panX = (int) Math.round(offsetX - (offsetX - m_panX) * zoom / m_zoom);
+		m_panY = (int) Math.round(offsetY - (offsetY - m_panY) * zoom / m_zoom);
+		m_zoom = zoom;
+	}// zoom
+
+	/**
+	 * Moves the view.
+	 * 
+	 * @param dx
+	 *            - pixels
+	 * @param dy
+	 *            - pixels
+	 */
+	public synchronized void pan(int dx, int dy)
+	{
+		m_panX += dx;
+		m_panY += dy;
+	}// pan
+
+	/**
+	 * Shows the whole roundabout again, centered.
+	 */
+	public synchronized void resetViewport()
+	{
+		m_zoom = 1;
+		m_panX = 0;
+		m_panY = 0;
+	}// resetViewport
+
+	/**
+	 * Draws a snapshot over the whole component.
+	 * 
+	 * @param g2d
+	 *            - Graphics2D of the component
+	 * @param snapshot
+	 *            - latest SimulationSnapshot
+	 * @param previous
+	 *            - SimulationSnapshot before it, null to draw the latest one
+	 *            as it is
+	 * @param alpha
+	 *            - between 0 (previous) and 1 (latest), where the vehicles are
+	 *            drawn
+	 */
+	public void paint(Graphics2D g2d, SimulationSnapshot snapshot, SimulationSnapshot previous, float alpha)
+	{
+		m_snapshot = snapshot;
+		m_previous = previous;
+		m_alpha = alpha;
+		updateTransform();
+
+		// Draw the roundabout. It covers the whole component, so there is
+		// nothing to clear.
+		g2d.drawImage(getBackgroundImage(), 0, 0, null);
+
+		// Draw the vehicles that can be seen
+		Rectangle clip = g2d.getClipBounds();
+		if (clip != null)
+			m_clip.setBounds(clip);
+		else
+			m_clip.setBounds(0, 0, m_component.getWidth(), m_component.getHeight());
+		paintVehicles(g2d);
+
+		// Translates the canvas
+		g2d.translate(m_centerX, m_centerY);
+
+		// Draw the traffic light
+		paintTrafficLight(g2d);
+	}// paint
+
+	/**
+	 * Returns the image of the roundabout without its vehicles. It is drawn
+	 * again if the size of the component, the viewport or the shape of the
+	 * roundabout changed since the previous frame. The image is compatible
+	 * with the screen, so it can be kept in video memory.
+	 * 
+	 * @return BufferedImage - as big as the component
+	 */
+	private BufferedImage getBackgroundImage()
+	{
+		int width = m_component.getWidth();
+		int height = m_component.getHeight();
+
+		if (m_background == null || m_background.getWidth() != width || m_background.getHeight() != height)
+		{
+			GraphicsConfiguration configuration = m_component.getGraphicsConfiguration();
+			if (configuration != null)
+				m_background = configuration.createCompatibleImage(width, height, Transparency.OPAQUE);
+			else
+				m_background = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		}
+		else
+			if (m_backgroundNbLane == m_snapshot.getNbLane() && m_backgroundRadius == m_snapshot.getRadius() && m_backgroundTransform.equals(m_transform))
+			{
+				return m_background;
+			}
+
+		m_backgroundNbLane = m_snapshot.getNbLane();
+		m_backgroundRadius = m_snapshot.getRadius();
+		m_backgroundTransform.setTransform(m_transform);
+		m_radiusRoundaboutPixels = meterToPixel(m_snapshot.getRadius());
+		m_radiusCenterPixels = meterToPixel(m_snapshot.getRadius() - 2 * Vehicle.WIDTH);
+
+		Graphics2D g2d = m_background.createGraphics();
+		g2d.setColor(m_component.getBackground());
+		g2d.fillRect(0, 0, width, height);
+		g2d.translate(m_centerX, m_centerY);
+		paintRoundabout(g2d);
+		g2d.dispose();
+
+		return m_background;
+	}// getBackgroundImage
+
+	/**
+	 * Draws the roundabout accordingly with its current settings.
+	 * 
+	 * @param g
+	 *            - Graphics
+	 */
+	private void paintRoundabout(Graphics g)
+	{
+		// Draw the lanes, if there are any.
+		if (m_snapshot.getNbLane() > 0)
+		{
+
+			Graphics2D g2d = (Graphics2D) g;
+
+			// Draws the grass
+			g2d.setColor(GRASS_COLOR);
+
+			g2d.fillRect(-m_centerX,						// x
+					-m_centerY,								// y
+					m_component.getWidth(),					// width
+					m_component.getHeight());				// height
+
+			// Draws the lanes
+			g2d.setColor(Color.GRAY);
+			double stepAngle = 2 * Math.PI / m_snapshot.getNbLane();
+			m_laneWidthInPixel = (int) (2f * (m_radiusRoundaboutPixels - m_radiusCenterPixels));
+			int laneLength = (int) Math.hypot(m_component.getWidth() / 2.0 + Math.abs(m_centerX - m_component.getWidth() / 2), m_component.getHeight() / 2.0
+					+ Math.abs(m_centerY - m_component.getHeight() / 2));	// Half the diagonal, and the pan
+			for (int i = 0; i < m_snapshot.getNbLane(); i++)
+			{
+				g2d.rotate(stepAngle);
+				g2d.fillRect(0, 											// x
+						-m_laneWidthInPixel / 2,							// y
+						laneLength, 										// width
+						m_laneWidthInPixel); 								// height
+			}
+		}
+
+		// Draws the circular part of the roundabout.
+		g.setColor(Color.GRAY);
+		g.fillOval(-m_radiusRoundaboutPixels, -m_radiusRoundaboutPixels, 2 * m_radiusRoundaboutPixels, 2 * m_radiusRoundaboutPixels); // Extérieur
+
+		g.setColor(GRASS_COLOR);
+		g.fillOval(-m_radiusCenterPixels, -m_radiusCenterPixels, 2 * m_radiusCenterPixels, 2 * m_radiusCenterPixels); // Intérieur
+	}// paintRoundabout
+
+	/**
+	 * Draws all simulated vehicles.
+	 * 
+	 * @param g
+	 *            - Graphics
+	 */
+	private void paintVehicles(Graphics g)
+	{
+		if (m_sprites == null)
+		{
+			// Every view shares the image, decoded in the background. Until
+			// it is ready, the vehicles aren't drawn and the component is
+			// repainted once it is.
+			BufferedImage image = Assets.get(Assets.BLUE_CAR, m_component);
+			if (image == null) return;
+			m_sprites = new VehicleSprites(image);
+		}
+
+		m_sprites.setSize(Vehicle.LENGTH * m_pixelsPerMeter, Vehicle.WIDTH * m_pixelsPerMeter, m_component.getGraphicsConfiguration());
+
+		// Past this radius, a vehicle can't reach the visible area, so it is
+		// skipped before its position is computed
+		final float halfSprite = m_sprites.getSize() / 2f;
+		final double maxRadius = (getFarthestDistance(m_clip.x, m_clip.y, m_clip.width, m_clip.height) + halfSprite) / m_pixelsPerMeter;
+
+		// The previous snapshot lists its vehicles in the same order, so the
+		// vehicles of both are matched in a single pass
+		int previous = 0;
+		for (int i = 0; i < m_snapshot.vehicleCount(); i++)
+		{
+			Vehicle.State state = m_snapshot.getState(i);
+			float theta = m_snapshot.getTheta(i);
+			float radius = m_snapshot.getRadius(i);
+
+			if (m_previous != null)
+			{
+				int id = m_snapshot.getId(i);
+				while (previous < m_previous.vehicleCount() && m_previous.getId(previous) - id < 0)
+				{
+					previous++;
+				}
+
+				// A vehicle that changed state is drawn where it is now
+				if (previous < m_previous.vehicleCount() && m_previous.getId(previous) == id && m_previous.getState(previous) == state)
+				{
+					theta = interpolateAngle(m_previous.getTheta(previous), theta);
+					radius = m_previous.getRadius(previous) + m_alpha * (radius - m_previous.getRadius(previous));
+				}
+			}
+
+			if (radius > maxRadius) continue;
+
+			paintVehicle(g, state, theta, radius, halfSprite);
+		}
+	}// paintVehicles
+
+	/**
+	 * Returns the distance from the center of the roundabout to the farthest
+	 * corner of a rectangle.
+	 * 
+	 * @param x
+	 *            - pixels, in the component
+	 * @param y
+	 *            - pixels, in the component
+	 * @param width
+	 *            - pixels
+	 * @param height
+	 *            - pixels
+	 * @return double - pixels
+	 */
+	private double getFarthestDistance(int x, int y, int width, int height)
+	{
+		double dx = Math.max(Math.abs(x - m_centerX), Math.abs(x + width - m_centerX));
+		double dy = Math.max(Math.abs(y - m_centerY), Math.abs(y + height - m_centerY));
+		return Math.sqrt(dx * dx + dy * dy);
+	}// getFarthestDistance
+
+	/**
+	 * Returns the angle between two angles, the way a vehicle turns from one
+	 * to the other.
+	 * 
+	 * @param from
+	 *            - radians, in the previous snapshot
+	 * @param to
+	 *            - radians, in the latest snapshot
+	 * @return float - radians
+	 */
+	private float interpolateAngle(float from, float to)
+	{
+		double turn = to - from;
+		turn -= 2 * Math.PI * Math.rint(turn / (2 * Math.PI));
+		return (float) (from + m_alpha * turn);
+	}// interpolateAngle
+
+	/**
+	 * Paint vehicle with the correct rotation angle and position on a Graphics
+	 * object
+	 * 
+	 * @param g
+	 *            Graphics
+	 * @param state
+	 *            State of the vehicle
+	 * @param theta
+	 *            Angle of the vehicle around the roundabout (radians)
+	 * @param radius
+	 *            Distance of the vehicle from the center (meters)
+	 * @param halfSprite
+	 *            Half the side of the image of a vehicle (pixels)
+	 */
+	private void paintVehicle(Graphics g, Vehicle.State state, float theta, float radius, float halfSprite)
+	{
+		// Center of the vehicle on its lane, before the rotation of theta
+		float x = radius;
+		float y = 0;
+		double angle = theta;
+		switch (state)
+		{
+			case ENTERING:
+				// On the right side of the road, facing the center
+				y = -Vehicle.WIDTH;
+				angle = theta + Math.PI;
+				break;
+			case LEAVING:
+				y = Vehicle.WIDTH;
+				break;
+			case INSIDE:
+				angle = theta - Math.PI / 2.0;
+				break;
+		}
+
+		final double cos = Math.cos(theta);
+		final double sin = Math.sin(theta);
+		final double scale = m_transform.getScaleX();
+		final double centerX = m_transform.getTranslateX() + (x * cos - y * sin) * scale;
+		final double centerY = m_transform.getTranslateY() + (x * sin + y * cos) * scale;
+
+		// Out of the visible area
+		if (centerX + halfSprite < m_clip.x || centerX - halfSprite > m_clip.x + m_clip.width || centerY + halfSprite < m_clip.y
+				|| centerY - halfSprite > m_clip.y + m_clip.height) return;
+
+		m_sprites.draw(g, angle, centerX, centerY);
+	}// paintVehicle
+
+	/**
+	 * Draws the traffic light with its current color.
+	 * 
+	 * @param g
+	 *            - Graphics
+	 */
+	private void paintTrafficLight(Graphics g)
+	{
+		int width = meterToPixel(TrafficLight.WIDTH);
+		int height = getLaneWidthInPixel() / 2;
+		int x = meterToPixel(m_snapshot.getLightX()) - width / 2;
+		int y = meterToPixel(m_snapshot.getLightY()) - height;
+
+		// Contour
+		g.setColor(Color.BLACK);
+		g.fillRect(x, y, width, height);
+
+		// Deux lumières
+		g.setColor(m_snapshot.isRedLight() ? Color.RED : Color.GREEN);
+		int widthLum = width / 2;
+		int heightLum = height / 6;
+		int xLum = x + widthLum / 2;
+		int yLum = y + height / 6;
+		g.fillRect(xLum, yLum, widthLum, heightLum);
+
+		yLum += height / 2;
+		g.fillRect(xLum, yLum, widthLum, heightLum);
+	}// paintTrafficLight
+
+	// Getters
+	public int getLaneWidthInPixel()
+	{
+		return m_laneWidthInPixel;
+	}
+
+}// class RoundaboutRenderer
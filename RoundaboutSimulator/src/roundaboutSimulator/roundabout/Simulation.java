@@ -0,0 +1,1292 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import roundaboutSimulator.observer.Observer;
+
+public class Simulation implements Observer
+{
+	// The roads are simulated up to this many roundabout radii from the center
+	public static final float	WORLD_RADIUS_FACTOR	= 2f;
+
+	private int					m_mediumTime		= 0;						// Seconds
+	private int					m_badTime			= 0;						// Seconds
+
+	// Life time of the vehicles disposed of
+	private LifeTimeStatistics	m_statistics		= new LifeTimeStatistics();
+
+	// Summaries of the statistics of the previous settings, from the oldest to
+	// the newest
+	public static final int		MAX_EPOCHS			= 16;
+	private LinkedList<EpochSummary>	m_epochs	= new LinkedList<EpochSummary>();
+
+	// Figures of the last simulated seconds, to see the effect of a change
+	// without the whole history
+	public static final int		DEFAULT_ROLLING_PERIOD	= 60;					// Seconds
+	private RollingWindow		m_recentExits		= new RollingWindow(DEFAULT_ROLLING_PERIOD);	// Life times
+	private RollingWindow		m_recentStopped		= new RollingWindow(DEFAULT_ROLLING_PERIOD);	// Sampled every step
+	private RollingWindow		m_recentInside		= new RollingWindow(DEFAULT_ROLLING_PERIOD);	// Sampled every step
+
+	private long				m_simulationTime	= 0;						// Milliseconds
+	private SimulationClock		m_clock				= new SimulationClock();
+
+	private int					m_nbLane;
+	private int					m_radius;										// Meters
+	private int					m_halfPeriod		= 1;						// Seconds
+
+	// Cars per minute
+	private int					m_carFlow			= 1;
+	private ArrivalProcess		m_arrivals			= new ArrivalProcess();
+
+	private TrafficLight		m_light				= new TrafficLight(m_halfPeriod);
+
+	// Each simulation draws its own numbers, so simulations can run in
+	// parallel. A run is replayed by the same seed and settings.
+	private final long			m_seed;
+	private RandomStream		m_origins;
+	private RandomStream		m_destinations;
+
+	private VehicleStore		m_vehicles			= new VehicleStore();
+
+	// Vehicles inside the roundabout, sorted by angle
+	private RingIndex			m_ring				= new RingIndex(m_vehicles);
+
+	// Vehicles that entered the roundabout during the current step
+	private int[]				m_newInside			= new int[16];
+	private int					m_newInsideCount	= 0;
+
+	// Vehicles on each arm, indexed by lane
+	private ArmQueue[]			m_entering			= new ArmQueue[0];
+	private ArmQueue[]			m_leaving			= new ArmQueue[0];
+
+	// Vehicles waiting for room to appear on each arm, indexed by lane
+	private EntryBacklog[]		m_backlogs			= new EntryBacklog[0];
+	private int					m_nbWaiting			= 0;						// In every backlog
+
+	// Vehicles generated since the roundabout started, whatever the epoch
+	private long				m_nbGenerated		= 0;
+
+	// Changes sent by other threads, applied by the thread stepping the
+	// simulation between two steps
+	private final Queue<Runnable>	m_commands		= new ConcurrentLinkedQueue<Runnable>();
+
+	/**
+	 * Creates an empty simulation. It needs settings before it can generate
+	 * vehicles.
+	 */
+	public Simulation()
+	{
+		this(RandomStream.mix64(System.nanoTime()));
+	}// Constructor (default)
+
+	/**
+	 * Creates an empty simulation whose random choices are determined by a
+	 * seed.
+	 * 
+	 * @param seed
+	 *            - long
+	 */
+	public Simulation(long seed)
+	{
+		m_seed = seed;
+		initRandom();
+		updateTimes();
+	}// Constructor
+
+	/**
+	 * Restarts the random streams from the seed. Each kind of choice has its
+	 * own stream, so changing how one of them is drawn does not change the
+	 * others.
+	 */
+	private void initRandom()
+	{
+		RandomStream root = new RandomStream(m_seed);
+		m_arrivals.reset(root.split());
+		m_origins = root.split();
+		m_destinations = root.split();
+	}// initRandom
+
+	/**
+	 * Sends new settings from any thread. They are applied before the next
+	 * step.
+	 * 
+	 * @param args
+	 *            - {lanes, radius, stop time, car flow, time step}
+	 */
+	@Override
+	public void update(int[] args)
+	{
+		final int[] settings = args.clone();
+		post(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				applySettings(settings);
+			}
+		});
+	}// update Override
+
+	/**
+	 * Applies new settings right away. The first settings start the
+	 * roundabout, the next ones reconfigure it without erasing the vehicles.
+	 * Only the thread stepping the simulation, or a thread holding its lock,
+	 * may call it.
+	 * 
+	 * @param args
+	 *            - {lanes, radius, stop time, car flow, time step}
+	 */
+	public void applySettings(int[] args)
+	{
+		if (getNbLane() == 0)
+		{
+			setNbLane(args[0]);
+			setRadius(args[1]);
+			setStopTime(args[2]);
+
+			resetRoundabout();
+
+			m_light.setX(m_radius * 1.5f);	// Place the traffic light
+		}
+		else
+			if (getNbLane() != args[0] || getRadius() != args[1] || getStopTime() != args[2])
+			{
+				reconfigure(args[0], args[1], args[2]);
+			}
+		setCarFlow(args[3]);
+		setTimeStep(args[4]);
+	}// applySettings
+
+	/**
+	 * Sends a change to the simulation from any thread. The change is run
+	 * before the next step, by the thread stepping the simulation, so it never
+	 * sees a step half done.
+	 * 
+	 * @param command
+	 *            - Runnable
+	 */
+	public void post(Runnable command)
+	{
+		m_commands.add(command);
+	}// post
+
+	/**
+	 * Runs the changes sent since the previous step, in the order they were
+	 * sent. The thread stepping the simulation runs them itself; while nothing
+	 * steps it, another thread can run them.
+	 * 
+	 * @return boolean - true if a change was run
+	 */
+	public synchronized boolean applyCommands()
+	{
+		boolean isApplied = false;
+		Runnable command;
+		while ((command = m_commands.poll()) != null)
+		{
+			command.run();
+			isApplied = true;
+		}
+		return isApplied;
+	}// applyCommands
+
+	public void resetRoundabout()
+	{
+		// Erase vehicles
+		m_vehicles.clear(getNbLane());
+		m_ring.clear();
+		m_newInsideCount = 0;
+
+		m_entering = new ArmQueue[getNbLane()];
+		m_leaving = new ArmQueue[getNbLane()];
+		m_backlogs = new EntryBacklog[getNbLane()];
+		m_nbWaiting = 0;
+		m_nbGenerated = 0;
+		for (int i = 0; i < getNbLane(); i++)
+		{
+			m_entering[i] = new ArmQueue(m_vehicles, true);
+			m_leaving[i] = new ArmQueue(m_vehicles, false);
+			m_backlogs[i] = new EntryBacklog();
+		}
+
+		// Erase all stats
+		m_epochs.clear();
+		m_statistics.reset(getNbLane());
+		m_statistics.setStartTime(0);
+
+		// Adjust the times
+		m_simulationTime = 0;
+		m_clock.reset();
+		m_recentExits.reset(0);
+		m_recentStopped.reset(0);
+		m_recentInside.reset(0);
+
+		initRandom();
+		updateTimes();
+	}
+
+	/**
+	 * Changes the shape of the roundabout and its light without erasing the
+	 * vehicles, so a congested roundabout doesn't have to fill up again. The
+	 * statistics of the previous settings are kept as an epoch and new ones
+	 * start.
+	 * 
+	 * A new stop time only changes the timing of the light. When the radius
+	 * changes, the vehicles on the arms keep their distance from the ring. When
+	 * the number of lanes changes, the routes go to the closest new arms and
+	 * the vehicles not yet in the roundabout go back to the backlogs, keeping
+	 * their arrival time.
+	 * 
+	 * @param nbLane
+	 *            - int
+	 * @param radius
+	 *            - meters
+	 * @param stopTime
+	 *            - seconds
+	 */
+	public void reconfigure(int nbLane, int radius, int stopTime)
+	{
+		int oldNbLane = getNbLane();
+		int oldRadius = getRadius();
+
+		setStopTime(stopTime);
+		if (nbLane != oldNbLane || radius != oldRadius)
+		{
+			setNbLane(nbLane);
+			setRadius(radius);
+			remapVehicles(oldNbLane, radius - oldRadius);
+
+			m_light.setX(m_radius * 1.5f);	// Place the traffic light
+		}
+		startEpoch();
+	}// reconfigure
+
+	/**
+	 * Puts the vehicles on the new shape of the roundabout. The vehicles in
+	 * the roundabout keep their angle, so the ring stays sorted.
+	 * 
+	 * @param oldNbLane
+	 *            - number of lanes before the change
+	 * @param shift
+	 *            - change of the radius (meters)
+	 */
+	private void remapVehicles(int oldNbLane, float shift)
+	{
+		final boolean lanesChanged = getNbLane() != oldNbLane;
+
+		// Vehicles going back to the backlogs
+		int nbBack = 0;
+		long[] arrivalTimes = new long[m_vehicles.size() + m_nbWaiting];
+		short[] sources = new short[arrivalTimes.length];
+		short[] destinations = new short[arrivalTimes.length];
+
+		int slot = m_vehicles.first();
+		while (slot != VehicleStore.NONE)
+		{
+			int next = m_vehicles.next(slot);
+			int source = remapLane(m_vehicles.m_source[slot], oldNbLane);
+			int destination = remapLane(m_vehicles.m_destination[slot], oldNbLane);
+
+			if (m_vehicles.m_state[slot] == VehicleStore.ENTERING)
+			{
+				m_vehicles.m_radius[slot] += shift;
+				if (lanesChanged || m_vehicles.m_radius[slot] > getSpawnRadius())
+				{
+					arrivalTimes[nbBack] = m_simulationTime - m_vehicles.m_lifeTime[slot];
+					sources[nbBack] = (short) source;
+					destinations[nbBack] = (short) destination;
+					nbBack++;
+
+					m_entering[m_vehicles.m_source[slot]].remove(slot);
+					m_vehicles.remove(slot);
+				}
+			}
+			else
+			{
+				m_vehicles.m_source[slot] = (short) source;
+				m_vehicles.m_destination[slot] = (short) destination;
+
+				if (m_vehicles.m_state[slot] == VehicleStore.INSIDE)
+				{
+					m_vehicles.m_radius[slot] = getRadius() - Vehicle.WIDTH;
+
+					// Takes the next exit to its new destination: neither a
+					// turn later, nor one already passed
+					m_vehicles.m_turns[slot] = 0;
+					double angle = angleToExit(slot);
+					m_vehicles.m_turns[slot] = (byte) (Math.floor(-angle / (2 * Math.PI)) + 1);
+				}
+				else
+				{
+					m_vehicles.m_radius[slot] += shift;
+					m_vehicles.m_theta[slot] = laneAngle(destination);
+				}
+			}
+			slot = next;
+		}
+
+		if (lanesChanged)
+		{
+			m_entering = new ArmQueue[getNbLane()];
+			m_leaving = new ArmQueue[getNbLane()];
+			for (int i = 0; i < getNbLane(); i++)
+			{
+				m_entering[i] = new ArmQueue(m_vehicles, true);
+				m_leaving[i] = new ArmQueue(m_vehicles, false);
+			}
+			for (slot = m_vehicles.first(); slot != VehicleStore.NONE; slot = m_vehicles.next(slot))
+			{
+				if (m_vehicles.m_state[slot] == VehicleStore.LEAVING) m_leaving[m_vehicles.m_destination[slot]].add(slot);
+			}
+		}
+
+		if (nbBack > 0 || lanesChanged)
+		{
+			for (int lane = 0; lane < m_backlogs.length; lane++)
+			{
+				EntryBacklog backlog = m_backlogs[lane];
+				for (int i = 0; i < backlog.size(); i++)
+				{
+					arrivalTimes[nbBack] = backlog.getArrivalTime(i);
+					sources[nbBack] = (short) remapLane(lane, oldNbLane);
+					destinations[nbBack] = (short) remapLane(backlog.getDestination(i), oldNbLane);
+					nbBack++;
+				}
+			}
+
+			// Sorted by arrival time. The sort is stable, so the vehicles of an
+			// arm keep their order.
+			final long[] times = arrivalTimes;
+			Integer[] order = new Integer[nbBack];
+			for (int i = 0; i < nbBack; i++)
+			{
+				order[i] = i;
+			}
+			Arrays.sort(order, new Comparator<Integer>()
+			{
+				@Override
+				public int compare(Integer a, Integer b)
+				{
+					return Long.compare(times[a], times[b]);
+				}
+			});
+
+			m_backlogs = new EntryBacklog[getNbLane()];
+			for (int i = 0; i < getNbLane(); i++)
+			{
+				m_backlogs[i] = new EntryBacklog();
+			}
+			for (int i = 0; i < nbBack; i++)
+			{
+				int index = order[i];
+				m_backlogs[sources[index]].add(arrivalTimes[index], destinations[index]);
+			}
+			m_nbWaiting = nbBack;
+		}
+
+		m_vehicles.recount(getNbLane());
+	}// remapVehicles
+
+	/**
+	 * Returns the arm that is the closest to where an arm was before the
+	 * number of lanes changed.
+	 * 
+	 * @param lane
+	 *            - arm before the change
+	 * @param oldNbLane
+	 *            - number of lanes before the change
+	 * @return int - lane
+	 */
+	private int remapLane(int lane, int oldNbLane)
+	{
+		return Math.round((float) lane * getNbLane() / oldNbLane) % getNbLane();
+	}// remapLane
+
+	/**
+	 * Keeps a summary of the statistics of the previous settings and starts
+	 * new ones. The histograms of the routes are dropped. Only the MAX_EPOCHS
+	 * latest summaries are kept.
+	 */
+	private void startEpoch()
+	{
+		m_statistics.setEndTime(m_simulationTime);
+		m_epochs.add(new EpochSummary(m_statistics));
+		if (m_epochs.size() > MAX_EPOCHS) m_epochs.removeFirst();
+
+		m_statistics.reset(getNbLane());
+		m_statistics.setStartTime(m_simulationTime);
+		updateTimes();
+	}// startEpoch
+
+	/**
+	 * Advances the simulation by the given time, in steps of the fixed time
+	 * step. The time that does not make a whole step is kept for the next
+	 * call.
+	 * 
+	 * @param elapsed
+	 *            - milliseconds of simulated time
+	 * @return int - number of steps done
+	 */
+	public synchronized int advance(double elapsed)
+	{
+		// The time step may change
+		applyCommands();
+
+		int steps = m_clock.advance(elapsed);
+		for (int i = 0; i < steps; i++)
+		{
+			step();
+		}
+		return steps;
+	}// advance
+
+	/**
+	 * Advances the simulation by one time step. Applies the changes sent since
+	 * the previous step, generates the vehicles the car flow requires during
+	 * the step and places the ones that have room, then moves every vehicle.
+	 * Threads other than the one stepping the simulation must hold its lock to
+	 * call it.
+	 */
+	public void step()
+	{
+		if (!m_commands.isEmpty()) applyCommands();
+
+		if (getNbLane() > 0)
+		{
+			final long end = m_simulationTime + getTimeStep();
+			while (m_arrivals.hasArrivalBefore(end))
+			{
+				generateVehicle(m_arrivals.nextArrival());
+			}
+			placeVehicles();
+		}
+		calculate();
+	}// step
+
+	/**
+	 * Calculates where the vehicles should be in the next step.
+	 * 
+	 * The vehicles outside the roundabout move first, while the ring is still
+	 * sorted. The vehicles inside never depend on the others, so they move
+	 * afterwards.
+	 */
+	public void calculate()
+	{
+		m_light.update(m_simulationTime);
+		m_simulationTime += getTimeStep();
+
+		final byte[] state = m_vehicles.m_state;
+		for (int i = m_vehicles.first(); i != VehicleStore.NONE; i = m_vehicles.next(i))
+		{
+			if (state[i] == VehicleStore.ENTERING)
+			{
+				calculate(i);
+				if (state[i] == VehicleStore.INSIDE)
+				{
+					m_entering[m_vehicles.m_source[i]].remove(i);
+					if (m_newInsideCount == m_newInside.length) m_newInside = Arrays.copyOf(m_newInside, 2 * m_newInside.length);
+					m_newInside[m_newInsideCount++] = i;
+				}
+				else
+					m_entering[m_vehicles.m_source[i]].update(i);
+			}
+			else
+				if (state[i] == VehicleStore.LEAVING)
+				{
+					calculate(i);
+					m_leaving[m_vehicles.m_destination[i]].update(i);
+				}
+		}
+
+		int i = 0;
+		while (i < m_ring.size())
+		{
+			int slot = m_ring.get(i);
+			calculate(slot);
+			if (state[slot] != VehicleStore.INSIDE)
+			{
+				m_ring.remove(i);
+				m_leaving[m_vehicles.m_destination[slot]].add(slot);
+			}
+			else
+				i++;
+		}
+
+		for (int j = 0; j < m_newInsideCount; j++)
+		{
+			m_ring.add(m_newInside[j]);
+		}
+		m_newInsideCount = 0;
+
+		disposeVehicles();
+
+		m_recentExits.advanceTo(m_simulationTime);
+		m_recentStopped.add(m_simulationTime, m_vehicles.getStoppedCount());
+		m_recentInside.add(m_simulationTime, m_ring.size());
+	}
+
+	/**
+	 * Calculate the next position of a vehicle and move it.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 */
+	private void calculate(int slot)
+	{
+		checkRoad(slot);
+		if (m_vehicles.m_isMoving[slot])
+		{
+			moveVehicle(slot);
+		}
+		m_vehicles.m_lifeTime[slot] += getTimeStep();
+	}
+
+	/**
+	 * Move only if nothing blocks the vehicle's path
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 */
+	private void checkRoad(int slot)
+	{
+		final float radius = m_vehicles.m_radius[slot];
+
+		switch (m_vehicles.m_state[slot])
+		{
+			case VehicleStore.ENTERING:
+				// The waiting zone is at least one step long, so that no
+				// vehicle jumps over it
+				if (radius <= getRadius() + Vehicle.WIDTH + Math.max(Vehicle.WIDTH, getStepDistance()) && radius >= getRadius() + Vehicle.WIDTH
+						&& checkEntrance(slot))
+				{
+					m_vehicles.setMoving(slot, false);
+					return;
+				}
+				// Pas de break, on exécute les instructions ci-dessous dans les
+				// deux cas
+				// Dans les deux cas:
+			case VehicleStore.LEAVING:
+				m_vehicles.setMoving(slot, !checkLane(slot));	// Si besoin de freiner
+				break;
+
+			case VehicleStore.INSIDE:
+				// Vehicles inside the roundabout have the right of way
+				m_vehicles.setMoving(slot, true);
+				break;
+		}
+	}
+
+	/**
+	 * Moves the vehicle at the correct position depending on its state and
+	 * currect position.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 */
+	private void moveVehicle(int slot)
+	{
+		final float deplacement = getStepDistance();
+		final float[] radius = m_vehicles.m_radius;
+
+		switch (m_vehicles.m_state[slot])
+		{
+			case VehicleStore.ENTERING:
+				if (radius[slot] <= getRadius() - Vehicle.WIDTH) m_vehicles.setState(slot, VehicleStore.INSIDE);
+				radius[slot] -= deplacement;
+				break;
+			case VehicleStore.LEAVING:
+				radius[slot] += deplacement;
+				break;
+			case VehicleStore.INSIDE:
+				if (isAtExit(slot)) m_vehicles.setState(slot, VehicleStore.LEAVING);
+				break;
+		}
+
+		// Automatically sets theta to a valid value
+		switch (m_vehicles.m_state[slot])
+		{
+			case VehicleStore.ENTERING:
+				m_vehicles.m_theta[slot] = laneAngle(m_vehicles.m_source[slot]);
+				break;
+			case VehicleStore.LEAVING:
+				m_vehicles.m_theta[slot] = laneAngle(m_vehicles.m_destination[slot]);
+				break;
+			case VehicleStore.INSIDE:
+				radius[slot] = getRadius() - Vehicle.WIDTH;
+				m_vehicles.m_theta[slot] -= deplacement / radius[slot];
+				break;
+		}
+	}
+
+	/**
+	 * Check if vehicle has reached its destination lane.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 * @return true if vehicle has reached its destination lane
+	 */
+	private boolean isAtExit(int slot)
+	{
+		return angleToExit(slot) <= 0;
+	}
+
+	/**
+	 * Returns the angle a vehicle inside the roundabout still has to cover
+	 * before it reaches its destination lane.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 * @return float - radians, 0 or less once it is at its exit
+	 */
+	private float angleToExit(int slot)
+	{
+		final int destination = m_vehicles.m_destination[slot];
+		final float theta = m_vehicles.m_theta[slot];
+
+		return theta - Vehicle.LENGTH / getRadius() + m_vehicles.m_turns[slot] * (float) (2f * Math.PI)
+				- (float) (2f * Math.PI * destination / getNbLane());
+	}
+
+	/**
+	 * Returns the distance a moving vehicle covers in one step.
+	 * 
+	 * @return float - Meters
+	 */
+	private float getStepDistance()
+	{
+		/*
+		 * VERY IMPORTANT CHANGE VALUES ---> TO ADJUST SPEED
+		 */
+		return Vehicle.SPEED * getTimeStep() / 1000f / 3.6f;
+	}
+
+	/**
+	 * Returns the angle of a lane.
+	 * 
+	 * @param lane
+	 *            - int
+	 * @return float - radians
+	 */
+	private float laneAngle(int lane)
+	{
+		return (float) (2f * Math.PI * lane / getNbLane());
+	}
+
+	/**
+	 * Generates a vehicle on a random lane. It waits in the backlog of the
+	 * lane until there is room for it on the road.
+	 * 
+	 * @param arrivalTime
+	 *            - milliseconds, during the current step. A vehicle placed
+	 *            in the step it arrives has a negative life time until the
+	 *            step moves it.
+	 */
+	public void generateVehicle(long arrivalTime)
+	{
+		int source = m_origins.nextInt(getNbLane());
+		int destination = m_destinations.nextInt(getNbLane());
+
+		m_backlogs[source].add(arrivalTime, destination);
+		m_nbWaiting++;
+		m_nbGenerated++;
+	}
+
+	/**
+	 * Puts the first vehicle of each backlog on the road, if there is room
+	 * for it. The time it waited counts in its life time.
+	 */
+	private void placeVehicles()
+	{
+		for (int lane = 0; lane < getNbLane(); lane++)
+		{
+			EntryBacklog backlog = m_backlogs[lane];
+			if (!backlog.isEmpty() && canPlaceVehicle(lane))
+			{
+				int slot = m_vehicles.add(lane, backlog.getFirstDestination());
+				m_vehicles.m_theta[slot] = laneAngle(lane);
+				m_vehicles.m_radius[slot] = getSpawnRadius();
+				m_vehicles.m_lifeTime[slot] = (int) (m_simulationTime - backlog.getFirstArrivalTime());
+				m_entering[lane].add(slot);
+
+				backlog.remove();
+				m_nbWaiting--;
+			}
+		}
+	}// placeVehicles
+
+	/**
+	 * Disposes of vehicles that no longer need to be simulated. They are the
+	 * first ones of their leaving queue.
+	 */
+	public void disposeVehicles()
+	{
+		for (int lane = 0; lane < getNbLane(); lane++)
+		{
+			ArmQueue leaving = m_leaving[lane];
+			int slot = leaving.getHead();
+			while (slot != VehicleStore.NONE && m_vehicles.m_radius[slot] >= getDisposeRadius())
+			{
+				m_statistics.add(m_vehicles.m_lifeTime[slot], m_vehicles.m_source[slot], m_vehicles.m_destination[slot]);
+				m_recentExits.add(m_simulationTime, m_vehicles.m_lifeTime[slot]);
+				leaving.remove(slot);
+				m_vehicles.remove(slot);
+				slot = leaving.getHead();
+			}
+		}
+	}
+
+	/**
+	 * Adjusts the values of m_mediumTime and m_badTime.
+	 */
+	public void updateTimes()
+	{
+		m_mediumTime = (int) ((getDisposeRadius() + Vehicle.LENGTH) / 15f * 3.6f);
+		m_badTime = (int) ((getDisposeRadius() + Vehicle.LENGTH) / 8f * 3.6f);
+
+		// The vehicles are sorted to the millisecond
+		float length = getDisposeRadius() + Vehicle.LENGTH;	// Meters
+		m_statistics.setCategories((int) (length / 15f * 3600f), (int) (length / 8f * 3600f));
+	}
+
+	/**
+	 * Receives circulation data and stores it.
+	 * 
+	 * @return: Vector of 3 Integers: 1st: Green 2nd: Yellow 3rd: Red
+	 */
+	public Vector<Integer> getCirculationStatisticalData()
+	{
+		Vector<Integer> data = new Vector<Integer>();
+
+		data.add((int) m_statistics.getNbGoodTimes());
+		data.add((int) m_statistics.getNbMediumTimes());
+		data.add((int) m_statistics.getNbBadTimes());
+
+		return data;
+	}
+
+	/**
+	 * Returns the statistics of the life time of the vehicles disposed of.
+	 * 
+	 * @return LifeTimeStatistics
+	 */
+	public LifeTimeStatistics getLifeTimeStatistics()
+	{
+		return m_statistics;
+	}
+
+	/**
+	 * Returns the summaries of the statistics of the previous settings, from
+	 * the oldest to the newest. The current statistics are given by
+	 * getLifeTimeStatistics().
+	 * 
+	 * @return List - EpochSummary, at most MAX_EPOCHS
+	 */
+	public List<EpochSummary> getEpochs()
+	{
+		return Collections.unmodifiableList(m_epochs);
+	}
+
+	/**
+	 * Returns the number of vehicles that left the simulation per minute,
+	 * during the last getRollingPeriod() seconds.
+	 * 
+	 * @return double - cars per minute
+	 */
+	public double getRecentThroughput()
+	{
+		int duration = m_recentExits.getDuration();
+		return (duration > 0) ? m_recentExits.getCount() * 60000.0 / duration : 0;
+	}
+
+	/**
+	 * Returns the mean life time of the vehicles that left the simulation
+	 * during the last getRollingPeriod() seconds.
+	 * 
+	 * @return double - milliseconds, 0 if no vehicle left
+	 */
+	public double getRecentAverageLifeTime()
+	{
+		return m_recentExits.getMean();
+	}
+
+	/**
+	 * Returns the mean number of stopped vehicles during the last
+	 * getRollingPeriod() seconds.
+	 * 
+	 * @return double - vehicles
+	 */
+	public double getRecentStoppedCount()
+	{
+		return m_recentStopped.getMean();
+	}
+
+	/**
+	 * Returns the mean number of vehicles in the roundabout during the last
+	 * getRollingPeriod() seconds.
+	 * 
+	 * @return double - vehicles
+	 */
+	public double getRecentInsideCount()
+	{
+		return m_recentInside.getMean();
+	}
+
+	/**
+	 * Returns the average time it takes for a vehicle to go through the
+	 * simulation.
+	 * 
+	 * @return seconds - int
+	 */
+	public int getAverageVehicleLifeTime()
+	{
+		return (int) (m_statistics.getMean() / 1000);
+	}
+
+	/**
+	 * Verifies if a new vehicle can be placed at the beginning of a lane. If
+	 * it can the method returns true. If it can't it returns false.
+	 * 
+	 * @param lane
+	 *            - int
+	 * @return boolean
+	 */
+	private boolean canPlaceVehicle(int lane)
+	{
+		// Only the last vehicle of the lane matters
+		int last = m_entering[lane].getTail();
+		if (last != VehicleStore.NONE)
+		{
+			float distance = getSpawnRadius() - m_vehicles.m_radius[last];
+			if ((distance - Vehicle.LENGTH) < 5.0f)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Verifies for a specific vehicle if the way is clear in front of it. If
+	 * the vehicle must stop, the method returns true. Otherwise it return
+	 * false.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 * @return boolean
+	 */
+	private boolean checkLane(int slot)
+	{
+		final float[] radius = m_vehicles.m_radius;
+		final boolean isEntering = m_vehicles.m_state[slot] == VehicleStore.ENTERING;
+
+		// Verifies clearance with the vehicle ahead to avoid collision
+		int leader;
+		int crossing;
+		if (isEntering)
+		{
+			leader = m_entering[m_vehicles.m_source[slot]].leaderOf(slot);
+			crossing = m_leaving[m_vehicles.m_source[slot]].getTail();
+		}
+		else
+		{
+			leader = m_leaving[m_vehicles.m_destination[slot]].leaderOf(slot);
+			crossing = m_entering[m_vehicles.m_destination[slot]].getHead();
+		}
+
+		if (leader != VehicleStore.NONE)
+		{
+			float distance = isEntering ? radius[slot] - radius[leader] : radius[leader] - radius[slot];
+			if (isTooClose(slot, distance)) return true;
+		}
+
+		// Vehicles driving the other way on the same arm, or crossing it inside
+		// the roundabout, only count by their distance from the center
+		if (crossing != VehicleStore.NONE && isTooClose(slot, radius[crossing])) return true;
+
+		final float[] thetas = m_vehicles.m_theta;
+		final float theta = thetas[slot];
+		for (int i = m_ring.lowerBound(theta - 0.011f); i < m_ring.size() && thetas[m_ring.get(i)] <= theta + 0.011f; i++)
+		{
+			if (0.01 >= Math.abs(thetas[m_ring.get(i)] - theta) && isTooClose(slot, radius[m_ring.get(i)])) return true;
+		}
+		for (int i = 0; i < m_newInsideCount; i++)
+		{
+			if (0.01 >= Math.abs(thetas[m_newInside[i]] - theta) && isTooClose(slot, radius[m_newInside[i]])) return true;
+		}
+
+		// Verifies if the vehicle must stop at the light
+		if (isEntering && isRedLight() && (Math.cos(theta) >= Math.cos(Math.PI / 16)))
+		{
+			float dist = radius[slot] - Vehicle.LENGTH / 2 - getLightPosition();
+
+			// If the car if 1 meter from the light or less, it stops. A longer
+			// step needs a longer zone.
+			if (0 <= dist && dist <= Math.max(1, getStepDistance()))
+			{
+				return true;
+			} // Must stop
+		}
+
+		return false;
+	}// checkLane
+
+	/**
+	 * Verifies if a vehicle must stop because of another vehicle at the given
+	 * distance in front of it. A stopped vehicle waits for more room before
+	 * moving again.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 * @param distance
+	 *            - Meters
+	 * @return boolean
+	 */
+	private boolean isTooClose(int slot, float distance)
+	{
+		if (!m_vehicles.m_isMoving[slot] && (distance - Vehicle.LENGTH) < 5.0f && distance > 0.0f)
+		{
+			return true;
+		}
+
+		else
+			if (distance - Vehicle.LENGTH < 2.0f && distance > 0.0f)
+			{
+				return true;
+			}
+		return false;
+	}// isTooClose
+
+	/**
+	 * Verifies for a specific vehicle if the way is clear to enter the inside
+	 * of the roundabout. If the way is clear, the method returns false. Otherwise
+	 * it return true.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 * @return boolean
+	 */
+	private boolean checkEntrance(int slot)
+	{
+		// Only the vehicles close to the entrance can block it. The margin
+		// covers the rounding of the exact test.
+		final float ahead = (7.0f + Vehicle.LENGTH) / getRadius() + 0.001f;
+		final float behind = Vehicle.LENGTH / getRadius() + 0.001f;
+		final float theta = m_vehicles.m_theta[slot];
+		final float turn = (float) (2 * Math.PI);
+
+		if (checkEntrance(slot, theta - behind, theta + ahead) || checkEntrance(slot, theta - turn - ahead, theta - turn + ahead))
+		{
+			return true;
+		}
+
+		for (int i = 0; i < m_newInsideCount; i++)
+		{
+			if (blocksEntrance(m_newInside[i], slot)) return true;
+		}
+		return false;
+	}// checkEntrance
+
+	/**
+	 * Verifies if a vehicle of the ring between two angles blocks the
+	 * entrance.
+	 * 
+	 * @param slot
+	 *            - the vehicle waiting at the entrance
+	 * @param from
+	 *            - radians
+	 * @param to
+	 *            - radians
+	 * @return boolean
+	 */
+	private boolean checkEntrance(int slot, float from, float to)
+	{
+		final float[] thetas = m_vehicles.m_theta;
+		for (int i = m_ring.lowerBound(from); i < m_ring.size() && thetas[m_ring.get(i)] <= to; i++)
+		{
+			if (blocksEntrance(m_ring.get(i), slot)) return true;
+		}
+		return false;
+	}// checkEntrance(int, float, float)
+
+	/**
+	 * Verifies if a vehicle inside the roundabout is too close to let another
+	 * one enter.
+	 * 
+	 * @param inside
+	 *            - vehicle inside the roundabout
+	 * @param slot
+	 *            - vehicle waiting at the entrance
+	 * @return boolean
+	 */
+	private boolean blocksEntrance(int inside, int slot)
+	{
+		float theta = m_vehicles.m_theta[inside];
+		float dist = getRadius() * (theta - m_vehicles.m_theta[slot]);
+		float dist2 = getRadius() * (float) Math.abs(theta - m_vehicles.m_theta[slot] + 2 * Math.PI);
+		return (dist - Vehicle.LENGTH <= 7.0f && dist + Vehicle.LENGTH >= -0.0f)
+				|| (dist2 - Vehicle.LENGTH <= 7.0f && dist2 + Vehicle.LENGTH >= -0.0f);
+	}// blocksEntrance
+
+	// Getters
+	/**
+	 * Returns the distance from the center at which the roads stop being
+	 * simulated.
+	 * 
+	 * @return float - Meters
+	 */
+	public float getWorldRadius()
+	{
+		return WORLD_RADIUS_FACTOR * getRadius();
+	}
+
+	/**
+	 * Returns the distance from the center at which new vehicles appear.
+	 * 
+	 * @return float - Meters
+	 */
+	public float getSpawnRadius()
+	{
+		return getWorldRadius() + Vehicle.LENGTH;
+	}
+
+	/**
+	 * Returns the distance from the center at which leaving vehicles are
+	 * disposed of.
+	 * 
+	 * @return float - Meters
+	 */
+	public float getDisposeRadius()
+	{
+		return 2 * getWorldRadius();
+	}
+
+	/**
+	 * Returns the seed of the random choices. A simulation created with this
+	 * seed and given the same settings does the same run.
+	 * 
+	 * @return long
+	 */
+	public long getSeed()
+	{
+		return m_seed;
+	}
+
+	public int getStopTime()
+	{
+		return m_halfPeriod;
+	}
+
+	public int getRadius()
+	{
+		return m_radius;
+	}
+
+	public int getNbLane()
+	{
+		return m_nbLane;
+	}
+
+	public int getMediumTime()
+	{
+		return m_mediumTime;
+	}
+
+	public int getBadTime()
+	{
+		return m_badTime;
+	}
+
+	public long getSimulationTime()
+	{
+		return m_simulationTime;
+	}
+
+	public int getCarFlow()
+	{
+		return m_carFlow;
+	}
+
+	/**
+	 * Returns the length of the windows of the recent figures.
+	 * 
+	 * @return int - seconds of simulated time
+	 */
+	public int getRollingPeriod()
+	{
+		return m_recentExits.getLength();
+	}
+
+	public ArrivalProcess.Type getArrivalType()
+	{
+		return m_arrivals.getType();
+	}
+
+	/**
+	 * Returns the simulated time covered by one step.
+	 * 
+	 * @return int - Milliseconds
+	 */
+	public int getTimeStep()
+	{
+		return m_clock.getTimeStep();
+	}
+
+	public boolean isRedLight()
+	{
+		return m_light.isRed();
+	}
+
+	public float getLightPosition()
+	{
+		return m_light.getX();
+	}
+
+	public TrafficLight getTrafficLight()
+	{
+		return m_light;
+	}
+
+	/**
+	 * Returns the vehicles of the simulation. Used by the views to draw them.
+	 * 
+	 * @return VehicleStore
+	 */
+	public VehicleStore getVehicles()
+	{
+		return m_vehicles;
+	}
+
+	/**
+	 * Returns the number of simulated vehicles.
+	 * 
+	 * @return int
+	 */
+	public int vehicleCount()
+	{
+		return m_vehicles.size();
+	}
+
+	/**
+	 * Returns the number of vehicles generated since the roundabout started.
+	 * Unlike the statistics, it doesn't start again when the settings change.
+	 * 
+	 * @return long
+	 */
+	public long getGeneratedCount()
+	{
+		return m_nbGenerated;
+	}
+
+	/**
+	 * Returns the number of vehicles waiting for room to appear on the road.
+	 * 
+	 * @return int
+	 */
+	public int vehicleCountWaiting()
+	{
+		return m_nbWaiting;
+	}
+
+	/**
+	 * Returns the number of vehicle inside the roundabout.
+	 * 
+	 * @return int
+	 */
+	public int vehicleCountInside()
+	{
+		return m_vehicles.getCount(Vehicle.State.INSIDE);
+	}
+
+	// Setters
+	/**
+	 * Sets the time length of the green and of the red light. Zero keeps the
+	 * light green.
+	 * 
+	 * @param stopTime
+	 *            - seconds
+	 */
+	public void setStopTime(int stopTime)
+	{
+		this.m_halfPeriod = stopTime;
+		m_light.setHalfPeriod(stopTime);
+	}
+
+	/**
+	 * Sets the value of m_carFlow. Unless the parameter is below or equal to
+	 * zero, in that case, the method does nothing
+	 * 
+	 * @param carFlow
+	 *            - int
+	 */
+	public void setCarFlow(int carFlow)
+	{
+		if (carFlow > 0)
+		{
+			m_carFlow = carFlow;
+			m_arrivals.setRate(carFlow);
+		}
+	}
+
+	/**
+	 * Sets how the time between two arrivals is chosen.
+	 * 
+	 * @param type
+	 *            - ArrivalProcess.Type
+	 */
+	public synchronized void setArrivalType(ArrivalProcess.Type type)
+	{
+		m_arrivals.setType(type);
+	}
+
+	/**
+	 * Sets the length of the windows of the recent figures. The windows start
+	 * again, empty, at the current time.
+	 * 
+	 * @param seconds
+	 *            - seconds of simulated time, above zero
+	 * @throws IllegalArgumentException
+	 *             if the length isn't above zero
+	 */
+	public synchronized void setRollingPeriod(int seconds) throws IllegalArgumentException
+	{
+		m_recentExits = new RollingWindow(seconds);
+		m_recentStopped = new RollingWindow(seconds);
+		m_recentInside = new RollingWindow(seconds);
+		m_recentExits.reset(m_simulationTime);
+		m_recentStopped.reset(m_simulationTime);
+		m_recentInside.reset(m_simulationTime);
+	}
+
+	/**
+	 * Sets the simulated time covered by one step. The value is kept between
+	 * SimulationClock.MIN_TIME_STEP and SimulationClock.MAX_TIME_STEP.
+	 * 
+	 * @param timeStep
+	 *            - milliseconds
+	 */
+	public void setTimeStep(int timeStep)
+	{
+		m_clock.setTimeStep(timeStep);
+	}
+
+	public void setRadius(int radius)
+	{
+		this.m_radius = radius;
+	}
+
+	public void setNbLane(int nb_lane)
+	{
+		this.m_nbLane = nb_lane;
+	}
+
+}// class Simulation
@@ -0,0 +1,64 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+/**
+ * Cuts the time given to the simulation into steps of a fixed duration. The
+ * duration of a step does not depend on how often the simulation is drawn:
+ * the time left over after the last whole step is kept for the next call.
+ */
+public class SimulationClock
+{
+	public static final int	MIN_TIME_STEP		= 10;		// Milliseconds
+	public static final int	DEFAULT_TIME_STEP	= 50;		// Milliseconds
+	public static final int	MAX_TIME_STEP		= 500;		// Milliseconds
+
+	private int				m_timeStep			= DEFAULT_TIME_STEP;	// Milliseconds
+	private double			m_accumulator		= 0;					// Milliseconds
+
+	/**
+	 * Adds time to the clock and returns how many steps it covers.
+	 * 
+	 * @param elapsed
+	 *            - milliseconds of simulated time to cover
+	 * @return int - number of steps to run
+	 */
+	public int advance(double elapsed)
+	{
+		m_accumulator += elapsed;
+
+		int steps = (int) (m_accumulator / m_timeStep);
+		m_accumulator -= steps * (double) m_timeStep;
+		return steps;
+	}// advance
+
+	/**
+	 * Forgets the time that was not used by a step yet.
+	 */
+	public void reset()
+	{
+		m_accumulator = 0;
+	}// reset
+
+	// Getters
+	public int getTimeStep()
+	{
+		return m_timeStep;
+	}
+
+	// Setters
+	/**
+	 * Sets the duration of a step. The value is kept between MIN_TIME_STEP
+	 * and MAX_TIME_STEP.
+	 * 
+	 * @param timeStep
+	 *            - milliseconds
+	 */
+	public void setTimeStep(int timeStep)
+	{
+		m_timeStep = Math.max(MIN_TIME_STEP, Math.min(MAX_TIME_STEP, timeStep));
+	}
+
+}// class SimulationClock
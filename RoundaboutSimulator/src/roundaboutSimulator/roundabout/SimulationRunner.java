@@ -0,0 +1,202 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Steps a simulation on its own thread, so the views never wait for a step
+ * and the steps never wait for the views. It follows real time multiplied by
+ * a time factor, or goes as fast as possible when the factor is 0. After each
+ * tick that changed the simulation, it publishes a snapshot of it that the
+ * views read without a lock.
+ */
+public class SimulationRunner implements Runnable
+{
+	// Time spent stepping between two snapshots at max speed
+	private static final long		BATCH_TIME		= 10000000L;	// Nanoseconds
+
+	// Real time between two ticks when following real time
+	private static final long		TICK_TIME		= 10;			// Milliseconds
+
+	// Longest real time simulated by one tick, so a slow tick cannot pile up
+	// more and more steps
+	private static final double		MAX_TICK_TIME	= 250;			// Milliseconds
+
+	private final Simulation		m_simulation;
+	private final SnapshotBuffer	m_snapshots		= new SnapshotBuffer();
+
+	// One buffer per thread reading the snapshots, m_snapshots first
+	private final List<SnapshotBuffer>	m_buffers	= new CopyOnWriteArrayList<SnapshotBuffer>();
+
+	private Thread					m_thread;
+	private volatile boolean		m_isRunning		= false;
+	private volatile int			m_timeFactor	= 1;			// 0 when unthrottled
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param simulation
+	 *            - Simulation to step
+	 */
+	public SimulationRunner(Simulation simulation)
+	{
+		m_simulation = simulation;
+		m_buffers.add(m_snapshots);
+	}// Constructor
+
+	/**
+	 * Starts stepping the simulation. Does nothing if it already runs.
+	 */
+	public synchronized void start()
+	{
+		if (m_thread != null) return;
+
+		m_isRunning = true;
+		m_thread = new Thread(this, "Simulation runner");
+		m_thread.setDaemon(true);
+		m_thread.start();
+	}// start
+
+	/**
+	 * Stops stepping the simulation. Returns once the current tick is over.
+	 */
+	public synchronized void stop()
+	{
+		if (m_thread == null) return;
+
+		m_isRunning = false;
+		try
+		{
+			m_thread.join();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		m_thread = null;
+	}// stop
+
+	/**
+	 * Publishes a snapshot of the simulation as it is. Used while the runner
+	 * is stopped, when something else changed the simulation.
+	 */
+	public void publish()
+	{
+		synchronized (m_simulation)
+		{
+			publishLocked();
+		}
+	}// publish
+
+	/**
+	 * Publishes a snapshot in every buffer. The caller holds the lock of the
+	 * simulation.
+	 */
+	private void publishLocked()
+	{
+		for (SnapshotBuffer buffer : m_buffers)
+		{
+			buffer.publish(m_simulation);
+		}
+	}// publishLocked
+
+	/**
+	 * Creates a buffer of snapshots for a view that reads them from its own
+	 * thread rather than the event dispatch thread. It starts with the current
+	 * state of the simulation.
+	 * 
+	 * @return SnapshotBuffer
+	 */
+	public SnapshotBuffer addSnapshotBuffer()
+	{
+		SnapshotBuffer buffer = new SnapshotBuffer();
+		synchronized (m_simulation)
+		{
+			buffer.publish(m_simulation);
+			m_buffers.add(buffer);
+		}
+		return buffer;
+	}// addSnapshotBuffer
+
+	@Override
+	public void run()
+	{
+		long lastTick = System.nanoTime();
+		while (m_isRunning)
+		{
+			int timeFactor = m_timeFactor;
+			long now = System.nanoTime();
+			double elapsed = Math.min(MAX_TICK_TIME, (now - lastTick) / 1e6);
+			lastTick = now;
+
+			synchronized (m_simulation)
+			{
+				// A tick too short for a step changes nothing, unless it
+				// applies a change
+				boolean isChanged = m_simulation.applyCommands();
+				if (timeFactor == 0)
+				{
+					long end = System.nanoTime() + BATCH_TIME;
+					do
+					{
+						m_simulation.step();
+					}
+					while (m_isRunning && System.nanoTime() < end);
+					isChanged = true;
+				}
+				else if (m_simulation.advance(elapsed * timeFactor) > 0)
+				{
+					isChanged = true;
+				}
+				if (isChanged) publishLocked();
+			}
+
+			if (timeFactor != 0)
+			{
+				try
+				{
+					Thread.sleep(TICK_TIME);
+				}
+				catch (InterruptedException e)
+				{
+					return;
+				}
+			}
+		}
+	}// run Override
+
+	// Getters
+	public boolean isRunning()
+	{
+		return m_isRunning;
+	}
+
+	/**
+	 * Returns the snapshots published by the runner. The views read them from
+	 * a single thread, the event dispatch thread.
+	 * 
+	 * @return SnapshotBuffer
+	 */
+	public SnapshotBuffer getSnapshots()
+	{
+		return m_snapshots;
+	}
+
+	// Setters
+	/**
+	 * Sets how many times faster than real time the simulation runs. At 0, it
+	 * runs as fast as possible.
+	 * 
+	 * @param factor
+	 *            - int
+	 */
+	public void setTimeFactor(int factor)
+	{
+		m_timeFactor = factor;
+	}
+
+}// class SimulationRunner
@@ -0,0 +1,378 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+import java.util.Arrays;
+
+/**
+ * Copy of what the views show of a simulation: the shape of the roundabout,
+ * the position of every vehicle, the traffic light and the statistics. The
+ * thread stepping the simulation fills it between two steps, then the views
+ * read it without a lock while the simulation goes on. Its arrays are kept
+ * from one copy to the next, so copying doesn't allocate once they are big
+ * enough.
+ */
+public class SimulationSnapshot
+{
+	private static final int				INITIAL_CAPACITY	= 64;
+	private static final Vehicle.State[]	STATES				= Vehicle.State.values();
+
+	// Roundabout
+	private int								m_nbLane			= 0;
+	private int								m_radius			= 0;	// Meters
+	private long							m_simulationTime	= 0;	// Milliseconds
+	private long							m_stateTime			= 0;	// Nanoseconds, when the simulation reached m_simulationTime
+
+	// Vehicles, in the order they were generated
+	private int								m_nbVehicle			= 0;
+	private int[]							m_id				= new int[INITIAL_CAPACITY];
+	private float[]							m_theta				= new float[INITIAL_CAPACITY];	// Radians
+	private float[]							m_vehicleRadius		= new float[INITIAL_CAPACITY];	// Meters
+	private byte[]							m_state				= new byte[INITIAL_CAPACITY];
+
+	// Traffic light
+	private float							m_lightX			= 0;	// Meters
+	private float							m_lightY			= 0;	// Meters
+	private boolean							m_isRedLight		= false;
+
+	// Counts
+	private int								m_nbWaiting			= 0;
+	private int								m_nbInside			= 0;
+	private long							m_nbGenerated		= 0;
+
+	// Statistics
+	private int								m_averageLifeTime	= 0;	// Seconds
+	private int								m_mediumTime		= 0;	// Seconds
+	private int								m_badTime			= 0;	// Seconds
+	private long							m_nbDisposed		= 0;
+	private long							m_nbGoodTimes		= 0;
+	private long							m_nbMediumTimes		= 0;
+	private long							m_nbBadTimes		= 0;
+	private long							m_statisticsStart	= 0;	// Milliseconds
+	private LifeTimeHistogram				m_histogram			= new LifeTimeHistogram();
+
+	// Last m_rollingPeriod seconds
+	private int								m_rollingPeriod		= 0;	// Seconds
+	private double							m_recentThroughput	= 0;	// Cars per minute
+	private double							m_recentLifeTime	= 0;	// Milliseconds
+	private double							m_recentStopped		= 0;
+	private double							m_recentInside		= 0;
+
+	/**
+	 * Copies the state of a simulation. Only the thread stepping the
+	 * simulation, or a thread holding its lock, may call it.
+	 * 
+	 * @param simulation
+	 *            - Simulation
+	 * @param stateTime
+	 *            - when the simulation reached its current time, in
+	 *            nanoseconds as given by System.nanoTime()
+	 */
+	public void copy(Simulation simulation, long stateTime)
+	{
+		m_nbLane = simulation.getNbLane();
+		m_radius = simulation.getRadius();
+		m_simulationTime = simulation.getSimulationTime();
+		m_stateTime = stateTime;
+
+		copyVehicles(simulation.getVehicles());
+
+		TrafficLight light = simulation.getTrafficLight();
+		m_lightX = light.getX();
+		m_lightY = light.getY();
+		m_isRedLight = light.isRed();
+
+		m_nbWaiting = simulation.vehicleCountWaiting();
+		m_nbInside = simulation.vehicleCountInside();
+		m_nbGenerated = simulation.getGeneratedCount();
+
+		LifeTimeStatistics statistics = simulation.getLifeTimeStatistics();
+		m_averageLifeTime = simulation.getAverageVehicleLifeTime();
+		m_mediumTime = simulation.getMediumTime();
+		m_badTime = simulation.getBadTime();
+		m_nbDisposed = statistics.getCount();
+		m_nbGoodTimes = statistics.getNbGoodTimes();
+		m_nbMediumTimes = statistics.getNbMediumTimes();
+		m_nbBadTimes = statistics.getNbBadTimes();
+
+		// The histogram only changes when a vehicle leaves or the statistics
+		// restart, so its buckets are copied only then
+		LifeTimeHistogram histogram = statistics.getHistogram();
+		if (histogram.getCount() != m_histogram.getCount() || statistics.getStartTime() != m_statisticsStart)
+		{
+			m_histogram.clear();
+			m_histogram.add(histogram);
+		}
+		m_statisticsStart = statistics.getStartTime();
+
+		m_rollingPeriod = simulation.getRollingPeriod();
+		m_recentThroughput = simulation.getRecentThroughput();
+		m_recentLifeTime = simulation.getRecentAverageLifeTime();
+		m_recentStopped = simulation.getRecentStoppedCount();
+		m_recentInside = simulation.getRecentInsideCount();
+	}// copy
+
+	/**
+	 * Copies the position and state of every vehicle.
+	 * 
+	 * @param vehicles
+	 *            - VehicleStore
+	 */
+	private void copyVehicles(VehicleStore vehicles)
+	{
+		ensureCapacity(vehicles.size());
+
+		int i = 0;
+		for (int slot = vehicles.first(); slot != VehicleStore.NONE; slot = vehicles.next(slot))
+		{
+			m_id[i] = vehicles.m_id[slot];
+			m_theta[i] = vehicles.m_theta[slot];
+			m_vehicleRadius[i] = vehicles.m_radius[slot];
+			m_state[i] = vehicles.m_state[slot];
+			i++;
+		}
+		m_nbVehicle = i;
+	}// copyVehicles
+
+	/**
+	 * Copies the vehicles of another snapshot, with its times. The views keep
+	 * this way the previous state of the simulation to interpolate from.
+	 * 
+	 * @param other
+	 *            - SimulationSnapshot
+	 */
+	public void copyVehicles(SimulationSnapshot other)
+	{
+		ensureCapacity(other.m_nbVehicle);
+
+		System.arraycopy(other.m_id, 0, m_id, 0, other.m_nbVehicle);
+		System.arraycopy(other.m_theta, 0, m_theta, 0, other.m_nbVehicle);
+		System.arraycopy(other.m_vehicleRadius, 0, m_vehicleRadius, 0, other.m_nbVehicle);
+		System.arraycopy(other.m_state, 0, m_state, 0, other.m_nbVehicle);
+		m_nbVehicle = other.m_nbVehicle;
+
+		m_simulationTime = other.m_simulationTime;
+		m_stateTime = other.m_stateTime;
+	}// copyVehicles
+
+	/**
+	 * Makes room for a number of vehicles.
+	 * 
+	 * @param nbVehicle
+	 *            - int
+	 */
+	private void ensureCapacity(int nbVehicle)
+	{
+		if (nbVehicle > m_theta.length)
+		{
+			int capacity = Math.max(nbVehicle, 2 * m_theta.length);
+			m_id = Arrays.copyOf(m_id, capacity);
+			m_theta = Arrays.copyOf(m_theta, capacity);
+			m_vehicleRadius = Arrays.copyOf(m_vehicleRadius, capacity);
+			m_state = Arrays.copyOf(m_state, capacity);
+		}
+	}// ensureCapacity
+
+	// Getters
+	public int getNbLane()
+	{
+		return m_nbLane;
+	}
+
+	public int getRadius()
+	{
+		return m_radius;
+	}
+
+	public long getSimulationTime()
+	{
+		return m_simulationTime;
+	}
+
+	/**
+	 * Returns when the simulation reached the time of the snapshot. The
+	 * snapshots copied until the next step share this time.
+	 * 
+	 * @return long - nanoseconds, as given by System.nanoTime()
+	 */
+	public long getStateTime()
+	{
+		return m_stateTime;
+	}
+
+	/**
+	 * Returns the number of simulated vehicles. The vehicles are numbered from
+	 * 0 to this number, in the order they were generated.
+	 * 
+	 * @return int
+	 */
+	public int vehicleCount()
+	{
+		return m_nbVehicle;
+	}
+
+	/**
+	 * Returns the id of a vehicle, the same in every snapshot. The ids grow
+	 * with the order of the vehicles.
+	 * 
+	 * @param vehicle
+	 *            - int
+	 * @return int
+	 */
+	public int getId(int vehicle)
+	{
+		return m_id[vehicle];
+	}
+
+	public float getTheta(int vehicle)
+	{
+		return m_theta[vehicle];
+	}
+
+	public float getRadius(int vehicle)
+	{
+		return m_vehicleRadius[vehicle];
+	}
+
+	public Vehicle.State getState(int vehicle)
+	{
+		return STATES[m_state[vehicle]];
+	}
+
+	public int vehicleCountWaiting()
+	{
+		return m_nbWaiting;
+	}
+
+	public int vehicleCountInside()
+	{
+		return m_nbInside;
+	}
+
+	/**
+	 * Returns the number of vehicles generated since the roundabout started.
+	 * 
+	 * @return long
+	 */
+	public long getGeneratedCount()
+	{
+		return m_nbGenerated;
+	}
+
+	public float getLightX()
+	{
+		return m_lightX;
+	}
+
+	public float getLightY()
+	{
+		return m_lightY;
+	}
+
+	public boolean isRedLight()
+	{
+		return m_isRedLight;
+	}
+
+	/**
+	 * Returns the average time it takes for a vehicle to go through the
+	 * simulation.
+	 * 
+	 * @return int - seconds
+	 */
+	public int getAverageVehicleLifeTime()
+	{
+		return m_averageLifeTime;
+	}
+
+	public int getMediumTime()
+	{
+		return m_mediumTime;
+	}
+
+	public int getBadTime()
+	{
+		return m_badTime;
+	}
+
+	/**
+	 * Returns the number of vehicles counted by the statistics.
+	 * 
+	 * @return long
+	 */
+	public long getDisposedCount()
+	{
+		return m_nbDisposed;
+	}
+
+	public long getNbGoodTimes()
+	{
+		return m_nbGoodTimes;
+	}
+
+	public long getNbMediumTimes()
+	{
+		return m_nbMediumTimes;
+	}
+
+	public long getNbBadTimes()
+	{
+		return m_nbBadTimes;
+	}
+
+	/**
+	 * Returns when the current statistics started.
+	 * 
+	 * @return long - milliseconds of simulation
+	 */
+	public long getStatisticsStartTime()
+	{
+		return m_statisticsStart;
+	}
+
+	/**
+	 * Returns the life time under which the given percentage of the vehicles
+	 * are.
+	 * 
+	 * @param percentile
+	 *            - between 0 and 100
+	 * @return int - milliseconds, 0 if there is no vehicle
+	 */
+	public int getPercentile(double percentile)
+	{
+		return m_histogram.getValueAtPercentile(percentile);
+	}
+
+	/**
+	 * Returns the length of the windows of the recent figures.
+	 * 
+	 * @return int - seconds of simulated time
+	 */
+	public int getRollingPeriod()
+	{
+		return m_rollingPeriod;
+	}
+
+	public double getRecentThroughput()
+	{
+		return m_recentThroughput;
+	}
+
+	public double getRecentAverageLifeTime()
+	{
+		return m_recentLifeTime;
+	}
+
+	public double getRecentStoppedCount()
+	{
+		return m_recentStopped;
+	}
+
+	public double getRecentInsideCount()
+	{
+		return m_recentInside;
+	}
+
+}// class SimulationSnapshot
@@ -0,0 +1,81 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Three snapshots passed between the thread stepping a simulation and the
+ * thread drawing it, without a lock. The writer fills the back snapshot and
+ * swaps it with the middle one. The reader swaps the middle one with the front
+ * one when it holds a newer copy, then reads the front one. Neither waits for
+ * the other: the writer never touches the snapshot being read, and the reader
+ * always gets the latest complete copy.
+ * 
+ * There must be one writer and one reader thread at a time.
+ */
+public class SnapshotBuffer
+{
+	// Set in m_middle when it holds a copy the reader hasn't seen
+	private static final int			FRESH		= 4;
+	private static final int			INDEX		= 3;
+
+	private final SimulationSnapshot[]	m_snapshots	= { new SimulationSnapshot(), new SimulationSnapshot(), new SimulationSnapshot() };
+
+	// Indexes in m_snapshots. m_back belongs to the writer, m_front to the
+	// reader, and m_middle is exchanged between them.
+	private int							m_back		= 0;
+	private final AtomicInteger			m_middle	= new AtomicInteger(1);
+	private int							m_front		= 2;
+
+	// Simulation time of the latest copy, and when the writer first saw it
+	private long						m_simulationTime	= -1;	// Milliseconds
+	private long						m_stateTime			= 0;	// Nanoseconds
+
+	/**
+	 * Copies the state of a simulation and makes it the latest snapshot. Only
+	 * the writer calls it.
+	 * 
+	 * @param simulation
+	 *            - Simulation, not stepped during the copy
+	 */
+	public void publish(Simulation simulation)
+	{
+		if (simulation.getSimulationTime() != m_simulationTime)
+		{
+			m_simulationTime = simulation.getSimulationTime();
+			m_stateTime = System.nanoTime();
+		}
+		m_snapshots[m_back].copy(simulation, m_stateTime);
+		m_back = m_middle.getAndSet(m_back | FRESH) & INDEX;
+	}// publish
+
+	/**
+	 * Tells if a snapshot newer than the one returned by the previous call to
+	 * getLatest() was published. Only the reader calls it.
+	 * 
+	 * @return boolean
+	 */
+	public boolean hasNewer()
+	{
+		return (m_middle.get() & FRESH) != 0;
+	}// hasNewer
+
+	/**
+	 * Returns the latest snapshot. It stays the same until the next call,
+	 * whatever the writer does. Only the reader calls it.
+	 * 
+	 * @return SimulationSnapshot
+	 */
+	public SimulationSnapshot getLatest()
+	{
+		if (hasNewer())
+		{
+			m_front = m_middle.getAndSet(m_front) & INDEX;
+		}
+		return m_snapshots[m_front];
+	}// getLatest
+
+}// class SnapshotBuffer
@@ -4,115 +4,90 @@
 
 package roundaboutSimulator.roundabout;
 
-import java.awt.Color;
-import java.awt.Graphics;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-
-import javax.swing.Timer;
-
+/**
+ * Traffic light on an arm of the roundabout. Its color only depends on the
+ * simulation time, so it stays in phase with the vehicles at any speed.
+ */
 public class TrafficLight
 {
+	public enum State
+	{
+		GREEN, RED
+	};
+
 	public static final float	WIDTH	= 1.63124342341f;	// Metres
 
 	private float				m_x;						// Metres
 	private float				m_y;						// Metres
 
-	private Roundabout				m_roundabout;
-	private Color				m_color	= new Color(0);	// Green / Red
+	private State				m_state	= State.GREEN;
 
-	private Timer				m_timer;
 	private int					m_greenTime, m_redTime;	// Seconds
+	private int					m_offset;					// Seconds
 
 	/**
 	 * Constructor.
 	 * 
-	 * @param roundabout
-	 *            Places the TrafficLight on this Roundabout
 	 * @param greenTime
 	 *            Time length of the green light (seconds)
 	 * @param redTime
 	 *            Time length of the red light (seconds)
+	 * @param offset
+	 *            Time at which the first green light starts (seconds)
 	 */
-	public TrafficLight(Roundabout roundabout, int greenTime, int redTime)
+	public TrafficLight(int greenTime, int redTime, int offset)
 	{
-		m_roundabout = roundabout;
-		m_color = Color.GREEN;
-
 		m_greenTime = greenTime;
 		m_redTime = redTime;
-
-		m_timer = new Timer(delayNeeded(), new ActionListener()
-		{
-			@Override
-			public void actionPerformed(ActionEvent e)
-			{
-				toggle();
-			}
-		});
+		m_offset = offset;
 	}// Constructor
 
 	/**
-	 * Constructor
+	 * Constructor.
 	 * 
-	 * @param roundabout
-	 *            Places the TrafficLight on this Roundabout
-	 * @param halfPeriod
-	 *            Toggles between red light and green light at this time
-	 *            interval in seconds
+	 * @param greenTime
+	 *            Time length of the green light (seconds)
+	 * @param redTime
+	 *            Time length of the red light (seconds)
 	 */
-	public TrafficLight(Roundabout roundabout, int halfPeriod)
+	public TrafficLight(int greenTime, int redTime)
 	{
-		this(roundabout, halfPeriod, halfPeriod);
+		this(greenTime, redTime, 0);
 	}// Constructor
 
 	/**
-	 * Calculate the delay needed until the next toggle.
+	 * Constructor
 	 * 
-	 * @return int Delay needed (ms)
+	 * @param halfPeriod
+	 *            Toggles between red light and green light at this time
+	 *            interval in seconds
 	 */
-	private int delayNeeded()
+	public TrafficLight(int halfPeriod)
 	{
-		int inSimTime = 1;
-
-		if (m_color.equals(Color.RED))
-			inSimTime = m_redTime;
-		else
-			if (m_color.equals(Color.GREEN)) inSimTime = m_greenTime;
-
-		int delay = inSimTime * 1000 / m_roundabout.getTimeFactor();
-		return delay;
-	}
+		this(halfPeriod, halfPeriod);
+	}// Constructor
 
 	/**
-	 * Paint itself on a Graphics Object
+	 * Sets the color the light has at the given simulation time. A light
+	 * without a green or a red phase stays green.
 	 * 
-	 * @param g
-	 *            Graphics Object
+	 * @param simulationTime
+	 *            Milliseconds
 	 */
-	public void paintTrafficLight(Graphics g)
+	public void update(long simulationTime)
 	{
-		int width = m_roundabout.meterToPixel(WIDTH);
-		int height = m_roundabout.getLaneWidthInPixel() / 2;
-		int x = m_roundabout.meterToPixel(m_x) - width / 2;
-		int y = m_roundabout.meterToPixel(m_y) - height;
-
-		// Contour
-		g.setColor(Color.BLACK);
-		g.fillRect(x, y, width, height);
-
-		// Deux lumires
-		g.setColor(m_color);
-		int widthLum = width / 2;
-		int heightLum = height / 6;
-		int xLum = x + widthLum / 2;
-		int yLum = y + height / 6;
-		g.fillRect(xLum, yLum, widthLum, heightLum);
+		if (m_greenTime <= 0 || m_redTime <= 0)
+		{
+			m_state = State.GREEN;
+			return;
+		}
 
-		yLum += height / 2;
-		g.fillRect(xLum, yLum, widthLum, heightLum);
+		long period = 1000L * (m_greenTime + m_redTime);
+		long phase = (simulationTime - 1000L * m_offset) % period;
+		if (phase < 0) phase += period;
 
-	}// paintTrafficLight
+		m_state = (phase < 1000L * m_greenTime) ? State.GREEN : State.RED;
+	}// update
 
 	// Getters
 	public void setX(float x)
@@ -135,24 +110,14 @@ public class TrafficLight
 		return m_y;
 	}
 
-	/**
-	 * Sets the Color of the TrafficLight
-	 * 
-	 * @param c
-	 *            Color.RED or Color.GREEN
-	 * @throws IllegalArgumentException
-	 *             if color isn't red or green
-	 */
-	public void setColor(Color c) throws IllegalArgumentException
+	public State getState()
 	{
-		if (c.equals(Color.GREEN) || c.equals(Color.RED))
-		{
-			m_color = c;
-		}
-		else
-		{
-			throw new IllegalArgumentException();
-		}
+		return m_state;
+	}
+
+	public boolean isRed()
+	{
+		return m_state == State.RED;
 	}
 
 	/**
@@ -166,61 +131,6 @@ public class TrafficLight
 	{
 		setGreenTime(halfPeriod);
 		setRedTime(halfPeriod);
-
-		restart();
-	}
-
-	/**
-	 * Toggle color from red to green or vice-versa.
-	 */
-	public void toggle()
-	{
-		if (m_color.equals(Color.GREEN))
-			setColor(Color.RED);
-		else
-			if (m_color.equals(Color.RED)) setColor(Color.GREEN);
-
-		start();
-	}
-
-	/**
-	 * Use to deactivate the color toggling.
-	 */
-	public void freezeOnGreen()
-	{
-		m_timer.stop();
-		m_color = Color.GREEN;
-	}
-
-	/**
-	 * Set the timer and start color toggling.
-	 */
-	public void start()
-	{
-		int delay = delayNeeded();
-
-		if (delay > 0)
-		{
-			m_timer.setDelay(delay);
-			m_timer.start();
-		}
-		else
-		{
-			freezeOnGreen();
-		}
-	}
-
-	/**
-	 * Stop color toggling.
-	 */
-	public void stop()
-	{
-		m_timer.stop();
-	}
-
-	public Color getColor()
-	{
-		return m_color;
 	}
 
 	public int getGreenTime()
@@ -228,15 +138,9 @@ public class TrafficLight
 		return m_greenTime;
 	}
 
-	/**
-	 * Also restarts the timer
-	 * 
-	 * @param greenTime
-	 */
 	public void setGreenTime(int greenTime)
 	{
 		m_greenTime = greenTime;
-		restart();
 	}
 
 	public int getRedTime()
@@ -244,26 +148,26 @@ public class TrafficLight
 		return m_redTime;
 	}
 
-	/**
-	 * Also restarts the timer
-	 * 
-	 * @param redTime
-	 */
 	public void setRedTime(int redTime)
 	{
 		m_redTime = redTime;
-		restart();
+	}
+
+	public int getOffset()
+	{
+		return m_offset;
 	}
 
 	/**
-	 * Restart the timer.
+	 * Sets the time at which the first green light starts. The cycle repeats
+	 * before and after it.
+	 * 
+	 * @param offset
+	 *            Seconds
 	 */
-	public void restart()
+	public void setOffset(int offset)
 	{
-		m_timer.setDelay(delayNeeded());
-		stop();
-		start();
+		m_offset = offset;
 	}
 
 }// class TrafficLight
-
@@ -0,0 +1,136 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Image of a vehicle scaled to the size it has on screen and rotated in
+ * NB_ANGLES directions. Each direction is drawn the first time it is needed,
+ * then a vehicle is drawn by copying its image without any transform. The
+ * images are compatible with the screen, so they can be kept in video memory.
+ */
+public class VehicleSprites
+{
+	public static final int			NB_ANGLES	= 256;
+
+	private final BufferedImage		m_image;
+	private final BufferedImage[]	m_sprites	= new BufferedImage[NB_ANGLES];
+
+	private float					m_length	= 0;	// Pixels
+	private float					m_width		= 0;	// Pixels
+	private int						m_side		= 0;	// Pixels, of every sprite
+	private GraphicsConfiguration	m_configuration;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param image
+	 *            - vehicle facing right
+	 */
+	public VehicleSprites(BufferedImage image)
+	{
+		m_image = image;
+	}// Constructor
+
+	/**
+	 * Sets the size of a vehicle on screen. The sprites are drawn again only if
+	 * it changed.
+	 * 
+	 * @param length
+	 *            - pixels
+	 * @param width
+	 *            - pixels
+	 * @param configuration
+	 *            - screen the sprites are drawn on, null if unknown
+	 */
+	public void setSize(float length, float width, GraphicsConfiguration configuration)
+	{
+		if (length != m_length || width != m_width || configuration != m_configuration)
+		{
+			m_length = length;
+			m_width = width;
+			m_configuration = configuration;
+
+			// Big enough for the vehicle in any direction
+			m_side = (int) Math.ceil(Math.sqrt(length * length + width * width)) + 2;
+			for (int i = 0; i < NB_ANGLES; i++)
+			{
+				m_sprites[i] = null;
+			}
+		}
+	}// setSize
+
+	/**
+	 * Returns the side of the square image of a vehicle, big enough for the
+	 * vehicle in any direction.
+	 * 
+	 * @return int - pixels
+	 */
+	public int getSize()
+	{
+		return m_side;
+	}// getSize
+
+	/**
+	 * Draws a vehicle.
+	 * 
+	 * @param g
+	 *            - Graphics
+	 * @param angle
+	 *            - direction of the vehicle (radians)
+	 * @param x
+	 *            - center of the vehicle (pixels)
+	 * @param y
+	 *            - center of the vehicle (pixels)
+	 */
+	public void draw(Graphics g, double angle, double x, double y)
+	{
+		int index = (int) Math.round(angle * NB_ANGLES / (2 * Math.PI)) % NB_ANGLES;
+		if (index < 0) index += NB_ANGLES;
+
+		if (m_sprites[index] == null)
+		{
+			m_sprites[index] = createSprite(2 * Math.PI * index / NB_ANGLES);
+		}
+		g.drawImage(m_sprites[index], (int) Math.round(x - m_side / 2.0), (int) Math.round(y - m_side / 2.0), null);
+	}// draw
+
+	/**
+	 * Draws the vehicle in one direction, in the middle of a transparent
+	 * square.
+	 * 
+	 * @param angle
+	 *            - radians
+	 * @return BufferedImage
+	 */
+	private BufferedImage createSprite(double angle)
+	{
+		BufferedImage sprite;
+		if (m_configuration != null)
+			sprite = m_configuration.createCompatibleImage(m_side, m_side, Transparency.TRANSLUCENT);
+		else
+			sprite = new BufferedImage(m_side, m_side, BufferedImage.TYPE_INT_ARGB_PRE);
+
+		// Done once per direction, so it can afford a smooth result
+		Graphics2D g2d = sprite.createGraphics();
+		g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+		g2d.translate(m_side / 2.0, m_side / 2.0);
+		g2d.rotate(angle);
+		g2d.translate(-m_length / 2.0, -m_width / 2.0);
+		g2d.scale(m_length / m_image.getWidth(), m_width / m_image.getHeight());
+		g2d.drawImage(m_image, 0, 0, null);
+		g2d.dispose();
+
+		return sprite;
+	}// createSprite
+
+}// class VehicleSprites
@@ -0,0 +1,438 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+import java.util.Arrays;
+
+/**
+ * Vehicles of a simulation stored as columns of primitives. A vehicle is
+ * identified by its slot, the index of its values in every column. A slot
+ * never changes while the vehicle lives, and the slots of removed vehicles are
+ * given to the next vehicles, so the columns stop growing once the traffic is
+ * steady. The state and the movement of a vehicle change through the store,
+ * which keeps the number of vehicles of each arm, state and movement up to
+ * date, so they are read without visiting the vehicles.
+ */
+public class VehicleStore
+{
+	// Values of the state column, in the same order as Vehicle.State
+	static final byte						ENTERING			= 0;
+	static final byte						INSIDE				= 1;
+	static final byte						LEAVING				= 2;
+	static final byte						DISPOSED			= 3;
+
+	// No vehicle in a link column
+	static final int						NONE				= -1;
+
+	private static final int				INITIAL_CAPACITY	= 64;
+	private static final Vehicle.State[]	STATES				= Vehicle.State.values();
+
+	float[]									m_theta;								// Radians
+	float[]									m_radius;								// Meters
+	byte[]									m_state;
+	boolean[]								m_isMoving;
+	short[]									m_source;
+	short[]									m_destination;
+	int[]									m_lifeTime;								// Milliseconds
+	int[]									m_id;									// In the order of generation
+
+	// Full turns of the ring a vehicle inside starts before its exit comes
+	// in reach: 1 when its destination is at or after its source, else 0
+	byte[]									m_turns;
+
+	// Neighbours on the same arm
+	int[]									m_leader;
+	int[]									m_follower;
+
+	// Living vehicles, from the oldest to the newest
+	private int[]							m_previous;
+	private int[]							m_next;
+	private int								m_first				= NONE;
+	private int								m_last				= NONE;
+
+	// Slots of the removed vehicles
+	private int[]							m_free;
+	private int								m_freeCount			= 0;
+
+	private int								m_used				= 0;					// Slots ever given
+	private int								m_nextId			= 0;
+	private int								m_size				= 0;
+
+	// Number of vehicles by arm, state and movement, at the index given by
+	// counter(int, int, boolean). A vehicle is on its source arm while it is
+	// entering, and on its destination arm afterwards.
+	private int[]							m_counts			= new int[0];
+	private final int[]						m_stateCounts		= new int[2 * DISPOSED];
+
+	/**
+	 * Creates an empty store.
+	 */
+	public VehicleStore()
+	{
+		m_theta = new float[INITIAL_CAPACITY];
+		m_radius = new float[INITIAL_CAPACITY];
+		m_state = new byte[INITIAL_CAPACITY];
+		m_isMoving = new boolean[INITIAL_CAPACITY];
+		m_source = new short[INITIAL_CAPACITY];
+		m_destination = new short[INITIAL_CAPACITY];
+		m_lifeTime = new int[INITIAL_CAPACITY];
+		m_id = new int[INITIAL_CAPACITY];
+		m_turns = new byte[INITIAL_CAPACITY];
+		m_leader = new int[INITIAL_CAPACITY];
+		m_follower = new int[INITIAL_CAPACITY];
+		m_previous = new int[INITIAL_CAPACITY];
+		m_next = new int[INITIAL_CAPACITY];
+		m_free = new int[INITIAL_CAPACITY];
+	}// Constructor (default)
+
+	/**
+	 * Adds a stopped vehicle at the entrance of its source lane. It reuses the
+	 * slot of a removed vehicle when there is one.
+	 * 
+	 * @param source
+	 *            - lane
+	 * @param destination
+	 *            - lane
+	 * @return int - slot of the new vehicle
+	 */
+	int add(int source, int destination)
+	{
+		int slot;
+		if (m_freeCount > 0)
+		{
+			slot = m_free[--m_freeCount];
+		}
+		else
+		{
+			if (m_used == m_theta.length) grow();
+			slot = m_used++;
+		}
+
+		m_theta[slot] = 0;
+		m_radius[slot] = 0;
+		m_state[slot] = ENTERING;
+		m_isMoving[slot] = false;
+		m_source[slot] = (short) source;
+		m_destination[slot] = (short) destination;
+		m_lifeTime[slot] = 0;
+		m_id[slot] = m_nextId++;
+		m_turns[slot] = (byte) ((source <= destination) ? 1 : 0);
+		m_leader[slot] = NONE;
+		m_follower[slot] = NONE;
+		count(slot, 1);
+
+		// The newest vehicle goes last
+		m_previous[slot] = m_last;
+		m_next[slot] = NONE;
+		if (m_last == NONE)
+			m_first = slot;
+		else
+			m_next[m_last] = slot;
+		m_last = slot;
+
+		m_size++;
+		return slot;
+	}// add
+
+	/**
+	 * Doubles the capacity of every column.
+	 */
+	private void grow()
+	{
+		int capacity = 2 * m_theta.length;
+		m_theta = Arrays.copyOf(m_theta, capacity);
+		m_radius = Arrays.copyOf(m_radius, capacity);
+		m_state = Arrays.copyOf(m_state, capacity);
+		m_isMoving = Arrays.copyOf(m_isMoving, capacity);
+		m_source = Arrays.copyOf(m_source, capacity);
+		m_destination = Arrays.copyOf(m_destination, capacity);
+		m_lifeTime = Arrays.copyOf(m_lifeTime, capacity);
+		m_id = Arrays.copyOf(m_id, capacity);
+		m_turns = Arrays.copyOf(m_turns, capacity);
+		m_leader = Arrays.copyOf(m_leader, capacity);
+		m_follower = Arrays.copyOf(m_follower, capacity);
+		m_previous = Arrays.copyOf(m_previous, capacity);
+		m_next = Arrays.copyOf(m_next, capacity);
+		m_free = Arrays.copyOf(m_free, capacity);
+	}// grow
+
+	/**
+	 * Removes a vehicle in constant time. The other vehicles keep their slot.
+	 * The vehicle must already be out of the arm queues.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 */
+	void remove(int slot)
+	{
+		int previous = m_previous[slot];
+		int next = m_next[slot];
+
+		if (previous == NONE)
+			m_first = next;
+		else
+			m_next[previous] = next;
+
+		if (next == NONE)
+			m_last = previous;
+		else
+			m_previous[next] = previous;
+
+		count(slot, -1);
+		m_state[slot] = DISPOSED;
+		m_free[m_freeCount++] = slot;
+		m_size--;
+	}// remove
+
+	/**
+	 * Changes the state of a vehicle.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 * @param state
+	 *            - ENTERING, INSIDE or LEAVING
+	 */
+	void setState(int slot, byte state)
+	{
+		count(slot, -1);
+		m_state[slot] = state;
+		count(slot, 1);
+	}// setState
+
+	/**
+	 * Starts or stops a vehicle.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 * @param isMoving
+	 *            - boolean
+	 */
+	void setMoving(int slot, boolean isMoving)
+	{
+		if (m_isMoving[slot] != isMoving)
+		{
+			count(slot, -1);
+			m_isMoving[slot] = isMoving;
+			count(slot, 1);
+		}
+	}// setMoving
+
+	/**
+	 * Adds a vehicle to the counters of its arm, state and movement, or
+	 * removes it from them.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 * @param delta
+	 *            - 1 or -1
+	 */
+	private void count(int slot, int delta)
+	{
+		int state = m_state[slot];
+		int arm = (state == ENTERING) ? m_source[slot] : m_destination[slot];
+		m_counts[counter(arm, state, m_isMoving[slot])] += delta;
+		m_stateCounts[counter(0, state, m_isMoving[slot])] += delta;
+	}// count
+
+	/**
+	 * Counts the vehicles again, on the given number of arms. It is needed
+	 * after the routes of the vehicles were changed in their columns.
+	 * 
+	 * @param nbLane
+	 *            - int
+	 */
+	void recount(int nbLane)
+	{
+		m_counts = new int[2 * DISPOSED * nbLane];
+		Arrays.fill(m_stateCounts, 0);
+		for (int slot = m_first; slot != NONE; slot = m_next[slot])
+		{
+			count(slot, 1);
+		}
+	}// recount
+
+	/**
+	 * Returns the index of a counter.
+	 * 
+	 * @param arm
+	 *            - lane
+	 * @param state
+	 *            - ENTERING, INSIDE or LEAVING
+	 * @param isMoving
+	 *            - boolean
+	 * @return int
+	 */
+	private static int counter(int arm, int state, boolean isMoving)
+	{
+		return 2 * (arm * DISPOSED + state) + (isMoving ? 1 : 0);
+	}// counter
+
+	/**
+	 * Removes every vehicle and sets the number of arms they are counted on.
+	 * 
+	 * @param nbLane
+	 *            - int
+	 */
+	void clear(int nbLane)
+	{
+		m_first = NONE;
+		m_last = NONE;
+		m_freeCount = 0;
+		m_used = 0;
+		m_size = 0;
+		m_counts = new int[2 * DISPOSED * nbLane];
+		Arrays.fill(m_stateCounts, 0);
+	}
+
+	/**
+	 * Returns the oldest vehicle. The vehicles are visited from the oldest to
+	 * the newest with next(int).
+	 * 
+	 * @return int - slot, NONE if the store is empty
+	 */
+	public int first()
+	{
+		return m_first;
+	}
+
+	/**
+	 * Returns the vehicle generated right after another one.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 * @return int - slot, NONE if it is the newest
+	 */
+	public int next(int slot)
+	{
+		return m_next[slot];
+	}
+
+	// Getters
+	public int size()
+	{
+		return m_size;
+	}
+
+	public float getTheta(int slot)
+	{
+		return m_theta[slot];
+	}
+
+	public float getRadius(int slot)
+	{
+		return m_radius[slot];
+	}
+
+	public Vehicle.State getState(int slot)
+	{
+		return STATES[m_state[slot]];
+	}
+
+	public boolean isMoving(int slot)
+	{
+		return m_isMoving[slot];
+	}
+
+	public int getSource(int slot)
+	{
+		return m_source[slot];
+	}
+
+	public int getDirection(int slot)
+	{
+		return m_destination[slot];
+	}
+
+	public int getLifeTime(int slot)
+	{
+		return m_lifeTime[slot];
+	}
+
+	/**
+	 * Returns a number that tells a vehicle apart from the vehicles generated
+	 * before and after it, even in a reused slot. It grows with the order of
+	 * generation, then wraps around after 2^32 vehicles.
+	 * 
+	 * @param slot
+	 *            - vehicle
+	 * @return int
+	 */
+	public int getId(int slot)
+	{
+		return m_id[slot];
+	}
+
+	/**
+	 * Returns the number of vehicles in a state.
+	 * 
+	 * @param state
+	 *            - Vehicle.State
+	 * @return int
+	 */
+	public int getCount(Vehicle.State state)
+	{
+		return getCount(state, false) + getCount(state, true);
+	}
+
+	/**
+	 * Returns the number of vehicles in a state that are moving or stopped.
+	 * 
+	 * @param state
+	 *            - Vehicle.State
+	 * @param isMoving
+	 *            - boolean
+	 * @return int
+	 */
+	public int getCount(Vehicle.State state, boolean isMoving)
+	{
+		return m_stateCounts[counter(0, state.ordinal(), isMoving)];
+	}
+
+	/**
+	 * Returns the number of vehicles of an arm in a state that are moving or
+	 * stopped. The entering vehicles are on their source arm, the others on
+	 * their destination arm.
+	 * 
+	 * @param arm
+	 *            - lane
+	 * @param state
+	 *            - Vehicle.State
+	 * @param isMoving
+	 *            - boolean
+	 * @return int
+	 */
+	public int getCount(int arm, Vehicle.State state, boolean isMoving)
+	{
+		return m_counts[counter(arm, state.ordinal(), isMoving)];
+	}
+
+	/**
+	 * Returns the number of stopped vehicles.
+	 * 
+	 * @return int
+	 */
+	public int getStoppedCount()
+	{
+		int count = 0;
+		for (int state = ENTERING; state < DISPOSED; state++)
+		{
+			count += m_stateCounts[counter(0, state, false)];
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the vehicle right in front of a vehicle on the same arm.
+	 * 
+	 * @param slot
+	 *            - int
+	 * @return int - slot of the leader, NONE if there is none
+	 */
+	public int getLeader(int slot)
+	{
+		return m_leader[slot];
+	}
+
+}// class VehicleStore
@@ -0,0 +1,78 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+import java.awt.Component;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+
+/**
+ * Moves the view of a roundabout with the mouse: the wheel zooms around the
+ * pointer, dragging pans and a double click shows the whole roundabout again.
+ */
+public class ViewportControl extends MouseAdapter
+{
+	// Zoom of one notch of the wheel
+	private static final double			ZOOM_STEP	= 1.25;
+
+	private final RoundaboutRenderer	m_renderer;
+	private final Component				m_component;
+
+	private int							m_dragX;	// Pixels
+	private int							m_dragY;	// Pixels
+
+	/**
+	 * Listens to the mouse on a component.
+	 * 
+	 * @param renderer
+	 *            - RoundaboutRenderer drawing the component
+	 * @param component
+	 *            - Component
+	 */
+	public ViewportControl(RoundaboutRenderer renderer, Component component)
+	{
+		m_renderer = renderer;
+		m_component = component;
+
+		component.addMouseListener(this);
+		component.addMouseMotionListener(this);
+		component.addMouseWheelListener(this);
+	}// Constructor
+
+	@Override
+	public void mouseWheelMoved(MouseWheelEvent e)
+	{
+		m_renderer.zoom(Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+		m_component.repaint();
+	}// mouseWheelMoved Override
+
+	@Override
+	public void mousePressed(MouseEvent e)
+	{
+		m_dragX = e.getX();
+		m_dragY = e.getY();
+	}// mousePressed Override
+
+	@Override
+	public void mouseDragged(MouseEvent e)
+	{
+		m_renderer.pan(e.getX() - m_dragX, e.getY() - m_dragY);
+		m_dragX = e.getX();
+		m_dragY = e.getY();
+		m_component.repaint();
+	}// mouseDragged Override
+
+	@Override
+	public void mouseClicked(MouseEvent e)
+	{
+		if (e.getClickCount() == 2)
+		{
+			m_renderer.resetViewport();
+			m_component.repaint();
+		}
+	}// mouseClicked Override
+
+}// class ViewportControl
@@ -0,0 +1,306 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.sweep;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import roundaboutSimulator.roundabout.LifeTimeStatistics;
+import roundaboutSimulator.roundabout.RandomStream;
+import roundaboutSimulator.roundabout.Simulation;
+import roundaboutSimulator.roundabout.SimulationClock;
+
+/**
+ * Simulates every combination of a range of settings, without display. Each
+ * replication of each scenario is an independent simulation, so they are
+ * spread over all the cores by a work-stealing pool.
+ */
+public class ParameterSweep
+{
+	private final Range		m_nbLane;
+	private final Range		m_radius;
+	private final Range		m_stopTime;
+	private final Range		m_carFlow;
+
+	private final int		m_replications;
+	private final int		m_duration;										// Milliseconds
+
+	private int				m_timeStep	= SimulationClock.DEFAULT_TIME_STEP;	// Milliseconds
+	private long			m_seed		= 0;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param nbLane
+	 *            - Range of the number of lanes
+	 * @param radius
+	 *            - Range of the radius (meters)
+	 * @param stopTime
+	 *            - Range of the stop time (seconds)
+	 * @param carFlow
+	 *            - Range of the car flow (cars per minute)
+	 * @param replications
+	 *            - number of simulations of each scenario
+	 * @param duration
+	 *            - simulated time of each simulation (milliseconds), rounded
+	 *            up to a whole number of time steps
+	 * @throws IllegalArgumentException
+	 *             if there are no replications, a duration shorter than the
+	 *             time step, or a scenario without lanes, radius or cars, or
+	 *             with a negative stop time
+	 */
+	public ParameterSweep(Range nbLane, Range radius, Range stopTime, Range carFlow, int replications, int duration)
+			throws IllegalArgumentException
+	{
+		if (replications <= 0 || duration < SimulationClock.DEFAULT_TIME_STEP || nbLane.getMin() <= 0 || radius.getMin() <= 0
+				|| stopTime.getMin() < 0 || carFlow.getMin() <= 0)
+		{
+			throw new IllegalArgumentException();
+		}
+		m_nbLane = nbLane;
+		m_radius = radius;
+		m_stopTime = stopTime;
+		m_carFlow = carFlow;
+		m_replications = replications;
+		m_duration = duration;
+	}// Constructor
+
+	/**
+	 * Runs the sweep on a new pool using every core.
+	 * 
+	 * @return List of the results, in the order of getScenarios()
+	 */
+	public List<ScenarioResult> run()
+	{
+		ForkJoinPool pool = new ForkJoinPool();
+		try
+		{
+			return run(pool);
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}// run
+
+	/**
+	 * Runs the sweep on the given pool.
+	 * 
+	 * @param pool
+	 *            - ForkJoinPool running the simulations
+	 * @return List of the results, in the order of getScenarios()
+	 */
+	public List<ScenarioResult> run(ForkJoinPool pool)
+	{
+		List<Scenario> scenarios = getScenarios();
+		Replication[] replications = new Replication[scenarios.size() * m_replications];
+
+		pool.invoke(new Replications(scenarios, replications, 0, replications.length));
+
+		List<ScenarioResult> results = new ArrayList<ScenarioResult>(scenarios.size());
+		for (int i = 0; i < scenarios.size(); i++)
+		{
+			results.add(summarize(scenarios.get(i), replications, i * m_replications));
+		}
+		return results;
+	}// run(ForkJoinPool)
+
+	/**
+	 * Returns every combination of the ranges. The number of lanes changes
+	 * the slowest and the car flow the fastest.
+	 * 
+	 * @return List of Scenario
+	 */
+	public List<Scenario> getScenarios()
+	{
+		List<Scenario> scenarios = new ArrayList<Scenario>(m_nbLane.size() * m_radius.size() * m_stopTime.size() * m_carFlow.size());
+		for (int l = 0; l < m_nbLane.size(); l++)
+			for (int r = 0; r < m_radius.size(); r++)
+				for (int s = 0; s < m_stopTime.size(); s++)
+					for (int f = 0; f < m_carFlow.size(); f++)
+					{
+						scenarios.add(new Scenario(m_nbLane.get(l), m_radius.get(r), m_stopTime.get(s), m_carFlow.get(f)));
+					}
+		return scenarios;
+	}// getScenarios
+
+	/**
+	 * Simulates one replication of a scenario.
+	 * 
+	 * @param scenario
+	 *            - Scenario to simulate
+	 * @param seed
+	 *            - seed of the simulation
+	 * @return Replication - results of the simulation
+	 */
+	private Replication simulate(Scenario scenario, long seed)
+	{
+		Simulation simulation = new Simulation(seed);
+		simulation.applySettings(scenario.toSettings(m_timeStep));
+
+		// The last step may go past the duration, so no time is left out
+		int steps = (m_duration + simulation.getTimeStep() - 1) / simulation.getTimeStep();
+		for (int i = 0; i < steps; i++)
+		{
+			simulation.step();
+		}
+
+		LifeTimeStatistics statistics = simulation.getLifeTimeStatistics();
+		return new Replication(statistics.getMean() / 1000, statistics.getNbGoodTimes(), statistics.getNbMediumTimes(), statistics.getNbBadTimes(),
+				simulation.getSimulationTime());
+	}// simulate
+
+	/**
+	 * Combines the replications of a scenario.
+	 * 
+	 * @param scenario
+	 *            - Scenario simulated
+	 * @param replications
+	 *            - results of every replication of the sweep
+	 * @param first
+	 *            - index of the first replication of the scenario
+	 * @return ScenarioResult
+	 */
+	private ScenarioResult summarize(Scenario scenario, Replication[] replications, int first)
+	{
+		double lifeTime = 0;
+		double throughput = 0;
+		long nbGood = 0, nbMedium = 0, nbBad = 0;
+
+		for (int i = first; i < first + m_replications; i++)
+		{
+			Replication replication = replications[i];
+			lifeTime += replication.m_averageLifeTime;
+			nbGood += replication.m_nbGoodTimes;
+			nbMedium += replication.m_nbMediumTimes;
+			nbBad += replication.m_nbBadTimes;
+			if (replication.m_simulationTime > 0)
+			{
+				throughput += (replication.m_nbGoodTimes + replication.m_nbMediumTimes + replication.m_nbBadTimes) * 60000.0
+						/ replication.m_simulationTime;
+			}
+		}
+
+		return new ScenarioResult(scenario, m_replications, lifeTime / m_replications, nbGood, nbMedium, nbBad, throughput / m_replications);
+	}// summarize
+
+	/**
+	 * Returns the seed of a replication. Seeds next to each other are mixed
+	 * so the simulations draw unrelated numbers.
+	 * 
+	 * @param index
+	 *            - index of the replication in the sweep
+	 * @return long - seed
+	 */
+	private long seedOf(int index)
+	{
+		return RandomStream.mix64(m_seed + (index + 1) * RandomStream.GOLDEN_GAMMA);
+	}// seedOf
+
+	// Getters
+	public int getTimeStep()
+	{
+		return m_timeStep;
+	}
+
+	public long getSeed()
+	{
+		return m_seed;
+	}
+
+	// Setters
+	/**
+	 * Sets the time step of the simulations. The value is kept between
+	 * SimulationClock.MIN_TIME_STEP and SimulationClock.MAX_TIME_STEP.
+	 * 
+	 * @param timeStep
+	 *            - milliseconds
+	 * @throws IllegalArgumentException
+	 *             if the time step is longer than the duration of the
+	 *             simulations
+	 */
+	public void setTimeStep(int timeStep) throws IllegalArgumentException
+	{
+		timeStep = Math.max(SimulationClock.MIN_TIME_STEP, Math.min(SimulationClock.MAX_TIME_STEP, timeStep));
+		if (timeStep > m_duration)
+		{
+			throw new IllegalArgumentException();
+		}
+		m_timeStep = timeStep;
+	}
+
+	/**
+	 * Sets the seed the seeds of the simulations derive from. The same seed
+	 * gives the same results, whatever the number of cores.
+	 * 
+	 * @param seed
+	 *            - long
+	 */
+	public void setSeed(long seed)
+	{
+		m_seed = seed;
+	}
+
+	/**
+	 * Results of one simulation.
+	 */
+	private static class Replication
+	{
+		final double	m_averageLifeTime;	// Seconds
+		final long		m_nbGoodTimes;
+		final long		m_nbMediumTimes;
+		final long		m_nbBadTimes;
+		final long		m_simulationTime;	// Milliseconds
+
+		Replication(double averageLifeTime, long nbGoodTimes, long nbMediumTimes, long nbBadTimes, long simulationTime)
+		{
+			m_averageLifeTime = averageLifeTime;
+			m_nbGoodTimes = nbGoodTimes;
+			m_nbMediumTimes = nbMediumTimes;
+			m_nbBadTimes = nbBadTimes;
+			m_simulationTime = simulationTime;
+		}
+	}// class Replication
+
+	/**
+	 * Simulates a slice of the replications of the sweep. The slice is split
+	 * in halves until it holds a single simulation, so idle workers can steal
+	 * the other half.
+	 */
+	private class Replications extends RecursiveAction
+	{
+		private static final long		serialVersionUID	= -4034870231893375227L;
+
+		private final List<Scenario>	m_scenarios;
+		private final Replication[]		m_results;
+		private final int				m_from;
+		private final int				m_to;
+
+		Replications(List<Scenario> scenarios, Replication[] results, int from, int to)
+		{
+			m_scenarios = scenarios;
+			m_results = results;
+			m_from = from;
+			m_to = to;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (m_to - m_from == 1)
+			{
+				m_results[m_from] = simulate(m_scenarios.get(m_from / m_replications), seedOf(m_from));
+			}
+			else
+			{
+				int middle = (m_from + m_to) >>> 1;
+				invokeAll(new Replications(m_scenarios, m_results, m_from, middle), new Replications(m_scenarios, m_results, middle, m_to));
+			}
+		}// compute Override
+	}// class Replications
+
+}// class ParameterSweep
@@ -0,0 +1,89 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.sweep;
+
+/**
+ * Values taken by a setting during a sweep, from a minimum to a maximum
+ * (both included) by a fixed step.
+ */
+public class Range
+{
+	private final int	m_min;
+	private final int	m_max;
+	private final int	m_step;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param min
+	 *            - first value
+	 * @param max
+	 *            - last value, included if the step reaches it
+	 * @param step
+	 *            - difference between two values
+	 * @throws IllegalArgumentException
+	 *             if max is below min or step isn't positive
+	 */
+	public Range(int min, int max, int step) throws IllegalArgumentException
+	{
+		if (max < min || step <= 0)
+		{
+			throw new IllegalArgumentException();
+		}
+		m_min = min;
+		m_max = max;
+		m_step = step;
+	}// Constructor
+
+	/**
+	 * Constructor for a range of a single value.
+	 * 
+	 * @param value
+	 *            - int
+	 */
+	public Range(int value)
+	{
+		this(value, value, 1);
+	}// Constructor
+
+	/**
+	 * Returns the number of values of the range.
+	 * 
+	 * @return int
+	 */
+	public int size()
+	{
+		return (m_max - m_min) / m_step + 1;
+	}
+
+	/**
+	 * Returns a value of the range.
+	 * 
+	 * @param index
+	 *            - between 0 and size() - 1
+	 * @return int
+	 */
+	public int get(int index)
+	{
+		return m_min + index * m_step;
+	}
+
+	// Getters
+	public int getMin()
+	{
+		return m_min;
+	}
+
+	public int getMax()
+	{
+		return m_max;
+	}
+
+	public int getStep()
+	{
+		return m_step;
+	}
+
+}// class Range
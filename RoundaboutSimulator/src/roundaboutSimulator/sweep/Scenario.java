@@ -0,0 +1,78 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.sweep;
+
+/**
+ * Settings of one cell of a sweep. They are the four settings of the
+ * SettingsList.
+ */
+public class Scenario
+{
+	private final int	m_nbLane;
+	private final int	m_radius;		// Meters
+	private final int	m_stopTime;	// Seconds
+	private final int	m_carFlow;		// Cars per minute
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param nbLane
+	 *            - number of lanes
+	 * @param radius
+	 *            - meters
+	 * @param stopTime
+	 *            - seconds
+	 * @param carFlow
+	 *            - cars per minute
+	 */
+	public Scenario(int nbLane, int radius, int stopTime, int carFlow)
+	{
+		m_nbLane = nbLane;
+		m_radius = radius;
+		m_stopTime = stopTime;
+		m_carFlow = carFlow;
+	}// Constructor
+
+	/**
+	 * Returns the settings in the order the Simulation receives them from the
+	 * SettingsList.
+	 * 
+	 * @param timeStep
+	 *            - milliseconds
+	 * @return int[] - settings
+	 */
+	public int[] toSettings(int timeStep)
+	{
+		return new int[] { m_nbLane, m_radius, m_stopTime, m_carFlow, timeStep };
+	}
+
+	// Getters
+	public int getNbLane()
+	{
+		return m_nbLane;
+	}
+
+	public int getRadius()
+	{
+		return m_radius;
+	}
+
+	public int getStopTime()
+	{
+		return m_stopTime;
+	}
+
+	public int getCarFlow()
+	{
+		return m_carFlow;
+	}
+
+	@Override
+	public String toString()
+	{
+		return m_nbLane + " lanes, " + m_radius + " m, " + m_stopTime + " s, " + m_carFlow + " cars/min";
+	}
+
+}// class Scenario
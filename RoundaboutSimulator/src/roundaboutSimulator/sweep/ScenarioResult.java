@@ -0,0 +1,95 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.sweep;
+
+/**
+ * Results of the replications of one scenario of a sweep.
+ */
+public class ScenarioResult
+{
+	private final Scenario	m_scenario;
+	private final int		m_replications;
+
+	private final double	m_averageLifeTime;	// Seconds
+	private final long		m_nbGoodTimes;
+	private final long		m_nbMediumTimes;
+	private final long		m_nbBadTimes;
+	private final double	m_throughput;		// Cars per minute
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param scenario
+	 *            - Scenario simulated
+	 * @param replications
+	 *            - number of simulations of the scenario
+	 * @param averageLifeTime
+	 *            - mean of the average life time of each replication
+	 *            (seconds)
+	 * @param nbGoodTimes
+	 *            - vehicles with a good time, over all replications
+	 * @param nbMediumTimes
+	 *            - vehicles with a medium time, over all replications
+	 * @param nbBadTimes
+	 *            - vehicles with a bad time, over all replications
+	 * @param throughput
+	 *            - mean number of vehicles disposed of per simulated minute
+	 */
+	public ScenarioResult(Scenario scenario, int replications, double averageLifeTime, long nbGoodTimes, long nbMediumTimes, long nbBadTimes,
+			double throughput)
+	{
+		m_scenario = scenario;
+		m_replications = replications;
+		m_averageLifeTime = averageLifeTime;
+		m_nbGoodTimes = nbGoodTimes;
+		m_nbMediumTimes = nbMediumTimes;
+		m_nbBadTimes = nbBadTimes;
+		m_throughput = throughput;
+	}// Constructor
+
+	// Getters
+	public Scenario getScenario()
+	{
+		return m_scenario;
+	}
+
+	public int getReplications()
+	{
+		return m_replications;
+	}
+
+	public double getAverageLifeTime()
+	{
+		return m_averageLifeTime;
+	}
+
+	public long getNbGoodTimes()
+	{
+		return m_nbGoodTimes;
+	}
+
+	public long getNbMediumTimes()
+	{
+		return m_nbMediumTimes;
+	}
+
+	public long getNbBadTimes()
+	{
+		return m_nbBadTimes;
+	}
+
+	public double getThroughput()
+	{
+		return m_throughput;
+	}
+
+	@Override
+	public String toString()
+	{
+		return m_scenario + ": " + String.format("%.1f", m_averageLifeTime) + " s, [" + m_nbGoodTimes + ", " + m_nbMediumTimes + ", "
+				+ m_nbBadTimes + "], " + String.format("%.2f", m_throughput) + " cars/min";
+	}
+
+}// class ScenarioResult
@@ -7,17 +7,14 @@ package roundaboutSimulator.ui;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import java.util.Vector;
 
-import javax.imageio.ImageIO;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
+import roundaboutSimulator.assets.Assets;
 import roundaboutSimulator.observer.Observer;
-import roundaboutSimulator.roundabout.Roundabout;
+import roundaboutSimulator.roundabout.SimulationSnapshot;
+import roundaboutSimulator.roundabout.SnapshotBuffer;
 
 
 public class GraphPanel extends JPanel implements Observer
@@ -27,9 +24,7 @@ public class GraphPanel extends JPanel implements Observer
 
 	JLabel						label;
 	private boolean				m_isDisplaying		= true;
-	private Roundabout				m_roundabout;
-	private BufferedImage		m_noResults;
-	private BufferedImage		m_title;
+	private SnapshotBuffer		m_snapshots;
 	private float				minVal				= 0;
 	private int					m_red;
 	private int					m_yellow;
@@ -37,12 +32,13 @@ public class GraphPanel extends JPanel implements Observer
 
 	public GraphPanel()
 	{
-		loadImages();
+		Assets.preload(Assets.NO_RESULTS, Assets.TITLE);
 	}
 
 	@Override
 	public void paintComponent(Graphics g)
 	{
+		updateGraph();
 		setBackground(g);
 		if (!isInitialized())
 		{
@@ -54,32 +50,17 @@ public class GraphPanel extends JPanel implements Observer
 				// Display results
 				display(g);
 			}
-		updateGraph();
 	}
 
 	@Override
 	public void update(int[] args)
 	{
+		// Called by the thread sending the settings, the graph is updated by
+		// the event dispatch thread
 		display(true);
-		updateGraph();
+		repaint();
 	}// update Override
 
-	/**
-	 * Loads the images needed for the GraphPanel
-	 */
-	public void loadImages()
-	{
-		try
-		{
-			m_noResults = ImageIO.read(new File("image/no_results.png"));
-			m_title = ImageIO.read(new File("image/title.png"));
-		}
-		catch (IOException ex)
-		{
-			System.out.println("Erreur: Les images n'ont pas pu ouvrir!");
-		}
-	}// loadImage
-
 	public void display(boolean arg)
 	{
 		m_isDisplaying = arg;
@@ -108,16 +89,16 @@ public class GraphPanel extends JPanel implements Observer
 	}
 
 	/**
-	 * Updates the GraphPanel with the newest values from Roundabout.
+	 * Updates the GraphPanel with the newest values from Simulation.
 	 */
 	private void updateGraph()
 	{
-		if (m_roundabout != null)
+		if (m_snapshots != null)
 		{
-			Vector<Integer> res = m_roundabout.getCirculationStatisticalData();
-			setGreen(res.get(0));
-			setYellow(res.get(1));
-			setRed(res.get(2));
+			SimulationSnapshot snapshot = m_snapshots.getLatest();
+			setGreen((int) snapshot.getNbGoodTimes());
+			setYellow((int) snapshot.getNbMediumTimes());
+			setRed((int) snapshot.getNbBadTimes());
 		}
 	}
 
@@ -146,7 +127,7 @@ public class GraphPanel extends JPanel implements Observer
 		g2d.drawLine((int) (minVal / 5f), (int) (5f * minVal / 10f), (int) (5f * minVal / 5f), (int) (5f * minVal / 10f));
 		g2d.drawLine((int) (minVal / 5f), (int) (7f * minVal / 10f), (int) (5f * minVal / 5f), (int) (7f * minVal / 10f));
 
-		g2d.drawImage(m_title, (int) (minVal / 10f), 0, (int) (minVal), (int) (3f * minVal / 10f), null);
+		g2d.drawImage(Assets.get(Assets.TITLE, this), (int) (minVal / 10f), 0, (int) (minVal), (int) (3f * minVal / 10f), null);
 	}
 
 	/**
@@ -160,7 +141,7 @@ public class GraphPanel extends JPanel implements Observer
 		Graphics2D g2d = (Graphics2D) g;
 		g2d.setColor(Color.BLACK);
 
-		g2d.drawImage(m_noResults, (int) (3f * minVal / 10f), (int) (5f * minVal / 10f), (int) (3f * minVal / 5f), (int) (minVal / 5f), null);
+		g2d.drawImage(Assets.get(Assets.NO_RESULTS, this), (int) (3f * minVal / 10f), (int) (5f * minVal / 10f), (int) (3f * minVal / 5f), (int) (minVal / 5f), null);
 	}
 
 	/**
@@ -201,14 +182,15 @@ public class GraphPanel extends JPanel implements Observer
 	}
 
 	/**
-	 * Defines a Roundabout from which GraphPanel must take its results.
+	 * Defines a Simulation from which GraphPanel must take its results.
 	 * 
-	 * @param roundabout
-	 *            - Roundabout
+	 * @param snapshots
+	 *            - SnapshotBuffer of the Simulation, read on the event
+	 *            dispatch thread
 	 */
-	public void addRoundabout(Roundabout roundabout)
+	public void setSnapshots(SnapshotBuffer snapshots)
 	{
-		m_roundabout = roundabout;
+		m_snapshots = snapshots;
 	}
 
 	// Getters
@@ -6,14 +6,15 @@ package roundaboutSimulator.ui;
 
 import java.awt.Color;
 import java.awt.Graphics;
-import java.util.Vector;
 
 import javax.swing.BoxLayout;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
 import roundaboutSimulator.observer.Observer;
-import roundaboutSimulator.roundabout.Roundabout;
+import roundaboutSimulator.roundabout.Simulation;
+import roundaboutSimulator.roundabout.SimulationSnapshot;
+import roundaboutSimulator.roundabout.SnapshotBuffer;
 
 public class ListPanel extends JPanel implements Observer
 {
@@ -22,18 +23,30 @@ public class ListPanel extends JPanel implements Observer
 
 	private BoxLayout			list;
 	private JLabel				stateLabel			= new JLabel("  State: ");
-	private Roundabout			m_roundabout;
+	private SnapshotBuffer		m_snapshots;
 	private JLabel				avTime				= new JLabel("  Average time: ");
+	private JLabel				percentiles			= new JLabel("  Percentiles: ");
 	private JLabel				allCars				= new JLabel("  Number of cars generated: ");
 	private JLabel				disCars				= new JLabel("  Number of cars disposed: ");
 	private JLabel				nbCars				= new JLabel("  Number of cars simulated: ");
 	private JLabel				carsInside				= new JLabel("  Number of cars in the roundabout: ");
+	private JLabel				carsWaiting			= new JLabel("  Number of cars waiting to enter: ");
 	private JLabel				medTime				= new JLabel("  Medium Time: ");
 	private JLabel				badTime				= new JLabel("  Bad Time: ");
 	private JLabel				simTime				= new JLabel("  Simulation Time: ");
+	private JLabel				epochTime			= new JLabel("  Statistics since: ");
+	private JLabel				speed				= new JLabel("  Speed: ");
+	private JLabel				recent				= new JLabel("  Last " + Simulation.DEFAULT_ROLLING_PERIOD + " seconds: ");
+
+	// The speed is measured over this period of real time
+	private static final long	SPEED_PERIOD		= 1000000000L;			// Nanoseconds
 
 	private int					averageTime			= 0;
 
+	private double				m_speed				= 0;					// Simulated seconds per second
+	private long				m_speedStart		= System.nanoTime();	// Nanoseconds
+	private long				m_speedStartTime	= 0;					// Milliseconds of simulation
+
 	/**
 	 * Default constructor
 	 */
@@ -49,13 +62,18 @@ public class ListPanel extends JPanel implements Observer
 
 		add(panel);
 		add(avTime);
+		add(percentiles);
 		add(allCars);
 		add(disCars);
 		add(nbCars);
 		add(carsInside);
+		add(carsWaiting);
 		add(medTime);
 		add(badTime);
 		add(simTime);
+		add(epochTime);
+		add(speed);
+		add(recent);
 
 		panel.setAlignmentX(LEFT_ALIGNMENT);
 
@@ -64,7 +82,9 @@ public class ListPanel extends JPanel implements Observer
 	@Override
 	public void update(int[] args)
 	{
-		refreshLabels();
+		// Called by the thread sending the settings, the labels are refreshed
+		// by the event dispatch thread
+		repaint();
 	}// update Override
 
 	@Override
@@ -74,18 +94,19 @@ public class ListPanel extends JPanel implements Observer
 		g.setColor(new Color(238, 238, 238));
 		g.fillRect(0, 0, getWidth(), getHeight());
 
-		if (m_roundabout != null)	// m_roundabout exists
+		if (m_snapshots != null)	// m_snapshots exists
 		{
-			averageTime = m_roundabout.getAverageVehicleLifeTime();
+			SimulationSnapshot snapshot = m_snapshots.getLatest();
+			averageTime = snapshot.getAverageVehicleLifeTime();
 
 			// Pick the right color
 			Color color;
-			if (averageTime <= m_roundabout.getMediumTime())
+			if (averageTime <= snapshot.getMediumTime())
 			{
 				color = Color.GREEN;
 			}
 			else
-				if (averageTime <= m_roundabout.getBadTime())
+				if (averageTime <= snapshot.getBadTime())
 				{
 					color = Color.YELLOW;
 				}
@@ -105,47 +126,100 @@ public class ListPanel extends JPanel implements Observer
 			// Indicator color
 			g.setColor(color);
 			g.fillRect(x + 1, y + 1, width - 2, height - 2);
-		}
 
-		refreshLabels();
+			refreshLabels(snapshot);
+		}
 	}
 
 	/**
-	 * Associate this ListPanel with a single Roundabout ListPanel will use this
-	 * Roundabout to calculate the statistic data
+	 * Associate this ListPanel with a single Simulation ListPanel will use the
+	 * snapshots of this Simulation to display the statistic data
 	 * 
-	 * @param roundabout
+	 * @param snapshots
+	 *            - SnapshotBuffer, read on the event dispatch thread
 	 */
-	public void setRoundabout(Roundabout roundabout)
+	public void setSnapshots(SnapshotBuffer snapshots)
 	{
-		m_roundabout = roundabout;
+		m_snapshots = snapshots;
 	}
 
 	/**
 	 * Updates the information displayed by the labels
+	 * 
+	 * @param snapshot
+	 *            - latest SimulationSnapshot
 	 */
-	private void refreshLabels()
+	private void refreshLabels(SimulationSnapshot snapshot)
 	{
 		avTime.setText("  Average time: " + formatTime(averageTime));
-		allCars.setText("  Number of car generated: " + (numberOfCars() + m_roundabout.vehicleCount()));
-		disCars.setText("  Number of car disposed: " + numberOfCars());
-		nbCars.setText("  Number of car simulated: " + m_roundabout.vehicleCount());
-		carsInside.setText("  Number of car in the roundabout: " + m_roundabout.vehicleCountInside());
-		medTime.setText("  Medium Time: " + formatTime(m_roundabout.getMediumTime()));
-		badTime.setText("  Bad Time: " + formatTime(m_roundabout.getBadTime()));
-		simTime.setText("  Simulation Time: " + formatElapseTime(m_roundabout.getSimulationTime()));
+		percentiles.setText("  Percentiles: " + formatPercentile(snapshot, "p50", 50) + formatPercentile(snapshot, "p90", 90) + formatPercentile(snapshot, "p99", 99)
+				+ formatPercentile(snapshot, "p99.9", 99.9));
+		allCars.setText("  Number of car generated: " + snapshot.getGeneratedCount());
+		disCars.setText("  Number of car disposed: " + numberOfCars(snapshot));
+		nbCars.setText("  Number of car simulated: " + snapshot.vehicleCount());
+		carsInside.setText("  Number of car in the roundabout: " + snapshot.vehicleCountInside());
+		carsWaiting.setText("  Number of car waiting to enter: " + snapshot.vehicleCountWaiting());
+		medTime.setText("  Medium Time: " + formatTime(snapshot.getMediumTime()));
+		badTime.setText("  Bad Time: " + formatTime(snapshot.getBadTime()));
+		simTime.setText("  Simulation Time: " + formatElapseTime(snapshot.getSimulationTime()));
+		epochTime.setText("  Statistics since: " + formatElapseTime(snapshot.getStatisticsStartTime()));
+		recent.setText("  Last " + snapshot.getRollingPeriod() + " seconds: " + String.format("%.1f cars/min, %.1fs average time, %.1f cars stopped, %.1f cars in the roundabout", snapshot.getRecentThroughput(),
+				snapshot.getRecentAverageLifeTime() / 1000, snapshot.getRecentStoppedCount(), snapshot.getRecentInsideCount()));
+		speed.setText("  Speed: " + String.format("%.1f", measureSpeed(snapshot)) + " simulated seconds per second");
+	}
+
+	/**
+	 * Formats the life time under which a percentage of the vehicles are.
+	 * 
+	 * @param snapshot
+	 *            - SimulationSnapshot
+	 * @param name
+	 *            - Ex: "p99"
+	 * @param percentile
+	 *            - between 0 and 100
+	 * @return String - Ex: "p99 12.3s "
+	 */
+	private String formatPercentile(SimulationSnapshot snapshot, String name, double percentile)
+	{
+		int time = snapshot.getPercentile(percentile);
+		return name + " " + String.format("%.1f", time / 1000.0) + "s ";
+	}
+
+	/**
+	 * Measures how many seconds are simulated per second of real time. The
+	 * value is updated once per SPEED_PERIOD.
+	 * 
+	 * @param snapshot
+	 *            - SimulationSnapshot
+	 * @return double - Simulated seconds per second
+	 */
+	private double measureSpeed(SimulationSnapshot snapshot)
+	{
+		long now = System.nanoTime();
+		if (now - m_speedStart >= SPEED_PERIOD)
+		{
+			long time = snapshot.getSimulationTime();
+
+			// The simulation time goes back to 0 when the settings change
+			m_speed = Math.max(0, (time - m_speedStartTime) / 1000.0 / ((now - m_speedStart) / 1e9));
+
+			m_speedStart = now;
+			m_speedStartTime = time;
+		}
+		return m_speed;
 	}
 
 	/**
 	 * Returns the number of cars taken into account for the statistics These
 	 * cars have all entered and left the roundabout
 	 * 
+	 * @param snapshot
+	 *            - SimulationSnapshot
 	 * @return
 	 */
-	private int numberOfCars()
+	private int numberOfCars(SimulationSnapshot snapshot)
 	{
-		Vector<Integer> res = m_roundabout.getCirculationStatisticalData();
-		return res.get(0) + res.get(1) + res.get(2);
+		return (int) snapshot.getDisposedCount();
 	}
 
 	/**
@@ -155,9 +229,9 @@ public class ListPanel extends JPanel implements Observer
 	 *            Time to format
 	 * @return String containing the human readable time
 	 */
-	private String formatElapseTime(int milliseconds)
+	private String formatElapseTime(long milliseconds)
 	{
-		int tenth, seconds, minutes, hours;
+		long tenth, seconds, minutes, hours;
 
 		hours = milliseconds / (1000 * 60 * 60);
 		milliseconds %= (1000 * 60 * 60);
@@ -180,7 +254,7 @@ public class ListPanel extends JPanel implements Observer
 	 *            Int to format
 	 * @return Formatted string
 	 */
-	private String clockFormat(int value)
+	private String clockFormat(long value)
 	{
 		if (value / 10 == 0)
 		{
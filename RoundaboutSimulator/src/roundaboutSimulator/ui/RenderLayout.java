@@ -9,23 +9,64 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 
+import roundaboutSimulator.observer.Observer;
 import roundaboutSimulator.roundabout.Roundabout;
+import roundaboutSimulator.roundabout.RoundaboutCanvas;
+import roundaboutSimulator.roundabout.Simulation;
+import roundaboutSimulator.roundabout.SimulationRunner;
 
 
 public class RenderLayout extends GridLayout
 {
+	/**
+	 * Speeds at which the simulation can run.
+	 */
+	public enum Speed
+	{
+		X1("Speed X1", 1), X10("Speed X10", 10), X100("Speed X100", 100), MAX("Max speed", 0);
+
+		private final String	m_label;
+		private final int		m_timeFactor;	// 0 when unthrottled
+
+		private Speed(String label, int timeFactor)
+		{
+			m_label = label;
+			m_timeFactor = timeFactor;
+		}
+
+		public int getTimeFactor()
+		{
+			return m_timeFactor;
+		}
+
+		@Override
+		public String toString()
+		{
+			return m_label;
+		}
+	};
 
 	private static final long	serialVersionUID	= 5687202636493409517L;
 
+	/**
+	 * System property that draws the roundabout on its own thread, at the
+	 * refresh rate of the screen, with the vehicles moving smoothly between
+	 * the steps. Ex: -DroundaboutSimulator.activeRendering=true
+	 */
+	public static final String	ACTIVE_RENDERING	= "roundaboutSimulator.activeRendering";
+
 	RenderWindow				m_window;
-	private Roundabout				m_roundabout			= new Roundabout();
+	private Simulation			m_simulation	= new Simulation();
+	private SimulationRunner	m_runner			= new SimulationRunner(m_simulation);
+	private Roundabout			m_roundabout	= new Roundabout(m_runner.getSnapshots());
 	private SettingsList		m_settings			= new SettingsList();
 	private GraphPanel			m_graph				= new GraphPanel();
 	private ListPanel			m_list				= new ListPanel();
 	private JButton				m_startPause		= new JButton("Start");
-	private JButton				m_speed				= new JButton("Speed X10");
-	private boolean				m_isPaused			= true;
+	private JComboBox<Speed>	m_speed				= new JComboBox<Speed>(Speed.values());
+	private volatile boolean	m_isPaused			= true;
 
 	/**
 	 * This constructor takes the containing RenderWindow as a reference.
@@ -39,20 +80,38 @@ public class RenderLayout extends GridLayout
 
 		this.m_window = window;
 
-		window.getContentPane().add(m_roundabout);
+		if (Boolean.getBoolean(ACTIVE_RENDERING))
+			window.getContentPane().add(new RoundaboutCanvas(m_runner.addSnapshotBuffer()));
+		else
+			window.getContentPane().add(m_roundabout);
 		window.getContentPane().add(m_settings);
 		window.getContentPane().add(m_list);
 		window.getContentPane().add(m_graph);
 
+		m_settings.addObserver(m_simulation);
+		m_settings.addObserver(new Observer()
+		{
+			@Override
+			public void update(int[] args)
+			{
+				// Nothing steps a paused simulation, so the settings are
+				// applied and shown right away
+				if (m_isPaused)
+				{
+					m_simulation.applyCommands();
+					m_runner.publish();
+				}
+			}
+		});
 		m_settings.addObserver(m_graph);
 		m_settings.addObserver(m_list);
 		m_settings.addObserver(m_roundabout);
 
-		m_graph.addRoundabout(m_roundabout);
-		m_list.setRoundabout(m_roundabout);
+		m_graph.setSnapshots(m_runner.getSnapshots());
+		m_list.setSnapshots(m_runner.getSnapshots());
 
 		m_settings.addButton(m_startPause);
-		m_settings.addButton(m_speed);
+		m_settings.addControl(m_speed);
 
 		m_startPause.addActionListener(new ActionListener()
 		{
@@ -68,7 +127,7 @@ public class RenderLayout extends GridLayout
 			@Override
 			public void actionPerformed(ActionEvent e)
 			{
-				superSpeed(m_speed.getText().equals("Speed X10"));
+				setSpeed((Speed) m_speed.getSelectedItem());
 			}
 		});
 
@@ -85,19 +144,6 @@ public class RenderLayout extends GridLayout
 		m_graph.repaint();
 	}// refresh
 
-	/**
-	 * Calculates the position the roundabout if it isn't paused. Calls the method
-	 * repaint of Roundabout.
-	 */
-	public void calculate()
-	{
-		if (m_window.getLoopCount() % (int) ((float) RenderWindow.FPS * 60f / (float) m_roundabout.getCarFlow()) == 0)
-		{
-			m_roundabout.generateVehicle();
-		}
-		m_roundabout.calculate();
-	}// refresh
-
 	/**
 	 * This method pauses the roundabout if the boolean sent is true. It resumes it
 	 * if it's false.
@@ -108,39 +154,31 @@ public class RenderLayout extends GridLayout
 	public void pause(boolean arg)
 	{
 		m_isPaused = arg;
-		m_roundabout.updateTimes();
 		if (m_isPaused)
 		{
 			m_startPause.setText("Start");
 			m_window.stop();
+			m_runner.stop();
 		}
 		else
 		{
 			m_startPause.setText("Pause");
 			m_window.start();
+			m_runner.start();
 		}
 	}// pause
 
 	/**
-	 * Activate/Deactivate Super Speed
+	 * Changes the speed of the simulation. The simulation steps on its own
+	 * thread at any speed, the window only refreshes the display.
 	 * 
-	 * @param arg
-	 *            true to activate, false to deactivate
+	 * @param speed
+	 *            - Speed
 	 */
-	public void superSpeed(boolean arg)
+	public void setSpeed(Speed speed)
 	{
-		m_window.setSuperSpeed(arg);
-		if (arg)
-		{
-			m_roundabout.setTimeFactor(10);
-			m_speed.setText("Normal Speed");
-		}
-		else
-		{
-			m_roundabout.setTimeFactor(1);
-			m_speed.setText("Speed X10");
-		}
-	}// superSpeed
+		m_runner.setTimeFactor(speed.getTimeFactor());
+	}// setSpeed
 
 	public boolean isPaused()
 	{
@@ -21,8 +21,6 @@ public class RenderWindow extends JFrame
 	private RenderLayout		grid;
 	private Timer				timer;
 	public static final int		FPS					= 20;
-	private int					timeFactor			= 1;
-	private int					loopCount			= 0;
 
 	/**
 	 * Default constructor
@@ -51,17 +49,14 @@ public class RenderWindow extends JFrame
 			}
 		});
 
-		timer = new Timer(1000 / timeFactor / FPS, new ActionListener()
+		timer = new Timer(1000 / FPS, new ActionListener()
 		{
 			@Override
 			public void actionPerformed(ActionEvent e)
 			{
-				if (getLoopCount() % timeFactor == 0)
-				{
-					grid.refresh();
-				}
-				grid.calculate();
-				loopCount++;
+				// The simulation steps on its own thread, the timer only
+				// draws its latest snapshot
+				grid.refresh();
 			}
 		});
 
@@ -85,23 +80,4 @@ public class RenderWindow extends JFrame
 		timer.stop();
 	}
 
-	/**
-	 * Activate/Deactivate Super Speed
-	 * 
-	 * @param true to activate SuperSpeed, false to deactivate
-	 */
-	public void setSuperSpeed(boolean arg)
-	{
-		if (arg)
-			timeFactor = 10;
-		else
-			timeFactor = 1;
-		timer.setDelay(1000 / timeFactor / FPS);
-	}
-
-	public int getLoopCount()
-	{
-		return loopCount;
-	}
-
 }// class RenderWindow
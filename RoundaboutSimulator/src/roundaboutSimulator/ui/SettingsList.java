@@ -5,15 +5,21 @@
 package roundaboutSimulator.ui;
 
 import java.awt.Dimension;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
+import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JSpinner;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 import roundaboutSimulator.observer.*;
+import roundaboutSimulator.roundabout.SimulationClock;
 
 
 public class SettingsList extends JPanel implements Observable
@@ -21,8 +27,6 @@ public class SettingsList extends JPanel implements Observable
 
 	private static final long	serialVersionUID	= 2339123174419232861L;
 
-	private static final int	REFRESH_DELAY		= 100;
-
 	private static final int	MIN_LANES			= 2;
 	private static final int	DEFAULT_LANES		= 4;
 	private static final int	MAX_LANES			= 24;
@@ -39,27 +43,41 @@ public class SettingsList extends JPanel implements Observable
 	private static final int	DEFAULT_CAR_FLOW	= 20;
 	private static final int	MAX_CAR_FLOW		= 200;
 
+	private static final int	MIN_TIME_STEP		= SimulationClock.MIN_TIME_STEP;
+	private static final int	DEFAULT_TIME_STEP	= SimulationClock.DEFAULT_TIME_STEP;
+	private static final int	MAX_TIME_STEP		= SimulationClock.MAX_TIME_STEP;
+
 	private BoxLayout			list;
-	private ArrayList<Observer>	observerList		= new ArrayList<Observer>();
+	private List<Observer>		observerList		= new CopyOnWriteArrayList<Observer>();
 	private Thread				observationThread;
+
+	// Newest settings not sent yet, and the last ones sent. Both are guarded
+	// by m_settingsLock.
+	private final Object		m_settingsLock		= new Object();
+	private int[]				m_pendingSettings;
+	private int[]				m_sentSettings;
 	private JPanel				pan1				= new JPanel();
 	private JPanel				pan2				= new JPanel();
 	private JPanel				pan3				= new JPanel();
 	private JPanel				pan4				= new JPanel();
+	private JPanel				pan5				= new JPanel();
 	private JLabel				label1				= new JLabel("Number of lanes ");
 	private JLabel				label2				= new JLabel("Radius (meter) ");
 	private JLabel				label3				= new JLabel("Stop time (sec) ");
 	private JLabel				label4				= new JLabel("Car per minute ");
+	private JLabel				label5				= new JLabel("Time step (ms) ");
 
 	private JSpinner			lanes				= new JSpinner();
 	private JSpinner			radius				= new JSpinner();
 	private JSpinner			stopTime			= new JSpinner();
 	private JSpinner			carFlow				= new JSpinner();
+	private JSpinner			timeStep			= new JSpinner();
 
 	private int					m_lanes;
 	private int					m_radius;
 	private int					m_stopTime;
 	private int					m_carFlow;
+	private int					m_timeStep;
 
 	/**
 	 * Default constructor
@@ -69,29 +87,83 @@ public class SettingsList extends JPanel implements Observable
 
 		this.init();
 
-		observationThread = new Thread()
+		ChangeListener listener = new ChangeListener()
+		{
+			@Override
+			public void stateChanged(ChangeEvent e)
+			{
+				settingsChanged();
+			}
+		};
+		lanes.addChangeListener(listener);
+		radius.addChangeListener(listener);
+		stopTime.addChangeListener(listener);
+		carFlow.addChangeListener(listener);
+		timeStep.addChangeListener(listener);
+
+		// Sends the settings to the observers away from the event thread. It
+		// sleeps until a spinner changes.
+		observationThread = new Thread("Settings observation")
 		{
 			@Override
 			public void run()
 			{
-				while (true)
+				try
 				{
-					try
+					while (!isInterrupted())
 					{
+						synchronized (m_settingsLock)
+						{
+							while (m_pendingSettings == null)
+							{
+								m_settingsLock.wait();
+							}
+						}
 						updateObserver();
-						Thread.sleep(REFRESH_DELAY);
-					}
-					catch (InterruptedException e)
-					{
-						e.printStackTrace();
 					}
 				}
+				catch (InterruptedException e)
+				{
+					// Stopped by stopObservation()
+				}
 			}
 		};
-
+		observationThread.setDaemon(true);
 		observationThread.start();
 	}// Constructor (default)
 
+	/**
+	 * Stops sending the settings to the observers. Returns once the thread
+	 * sending them is over.
+	 */
+	public void stopObservation()
+	{
+		observationThread.interrupt();
+		try
+		{
+			observationThread.join();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}// stopObservation
+
+	/**
+	 * Reads the spinners and hands the settings to the observation thread.
+	 * Settings that the thread hasn't sent yet are replaced, so a burst of
+	 * changes is sent once.
+	 */
+	private void settingsChanged()
+	{
+		int[] settings = getSettings();
+		synchronized (m_settingsLock)
+		{
+			m_pendingSettings = settings;
+			m_settingsLock.notify();
+		}
+	}// settingsChanged
+
 	/**
 	 * Add a JButton to SettingsList
 	 * 
@@ -99,9 +171,20 @@ public class SettingsList extends JPanel implements Observable
 	 *            JButton to add
 	 */
 	public void addButton(JButton button)
+	{
+		addControl(button);
+	}
+
+	/**
+	 * Add a control, like a JButton or a JComboBox, to SettingsList
+	 * 
+	 * @param control
+	 *            JComponent to add
+	 */
+	public void addControl(JComponent control)
 	{
 		JPanel pan = new JPanel();
-		pan.add(button);
+		pan.add(control);
 		add(pan);
 		pan.setAlignmentX(RIGHT_ALIGNMENT);
 	}
@@ -177,6 +260,23 @@ public class SettingsList extends JPanel implements Observable
 		return m_carFlow;
 	}
 
+	/**
+	 * Returns the simulated time covered by one step (milliseconds)
+	 * 
+	 * @return int - Time step
+	 */
+	public int getTimeStep()
+	{
+		m_timeStep = Integer.parseInt(timeStep.getValue().toString());
+
+		if (m_timeStep < MIN_TIME_STEP)
+			return MIN_TIME_STEP;
+		else
+			if (m_timeStep > MAX_TIME_STEP) return MAX_TIME_STEP;
+
+		return m_timeStep;
+	}
+
 	/**
 	 * Initializes the content of SettingsList. It is meant to be called from
 	 * the constructor.
@@ -207,6 +307,12 @@ public class SettingsList extends JPanel implements Observable
 		carFlow.setMaximumSize(new Dimension(90, 25));
 		pan4.add(carFlow);
 
+		pan5.setLayout(new BoxLayout(pan5, BoxLayout.LINE_AXIS));
+		pan5.add(label5);
+		timeStep.setMinimumSize(new Dimension(50, 25));
+		timeStep.setMaximumSize(new Dimension(90, 25));
+		pan5.add(timeStep);
+
 		list = new BoxLayout(this, BoxLayout.PAGE_AXIS);
 		setLayout(list);
 
@@ -214,71 +320,96 @@ public class SettingsList extends JPanel implements Observable
 		pan2.setAlignmentX(RIGHT_ALIGNMENT);
 		pan3.setAlignmentX(RIGHT_ALIGNMENT);
 		pan4.setAlignmentX(RIGHT_ALIGNMENT);
+		pan5.setAlignmentX(RIGHT_ALIGNMENT);
 
 		add(pan1);
 		add(pan2);
 		add(pan3);
 		add(pan4);
+		add(pan5);
 
 		lanes.setValue(DEFAULT_LANES);
 		radius.setValue(DEFAULT_RADIUS);
 		stopTime.setValue(DEFAULT_STOP_TIME);
 		carFlow.setValue(DEFAULT_CAR_FLOW);
+		timeStep.setValue(DEFAULT_TIME_STEP);
 
 	}// init
 
+	/**
+	 * Adds an observer. The current settings are sent again to every
+	 * observer, so the new one starts with them.
+	 * 
+	 * @param obs
+	 *            - the new observer
+	 */
 	@Override
 	public void addObserver(Observer obs)
 	{
 		this.observerList.add(obs);
+
+		synchronized (m_settingsLock)
+		{
+			m_sentSettings = null;
+		}
+		settingsChanged();
 	}// addObserver
 
 	@Override
 	public void removeObserver()
 	{
-		this.observerList = new ArrayList<Observer>();
+		this.observerList.clear();
 	}// removeObserver
 
+	/**
+	 * Sends the newest settings to the observers, if they differ from the last
+	 * ones sent.
+	 */
 	@Override
 	public void updateObserver()
 	{
-		if (settingsModified())
+		int[] settings;
+		synchronized (m_settingsLock)
 		{
-			for (Observer obs : this.observerList)
-				obs.update(getSettings());
+			settings = m_pendingSettings;
+			m_pendingSettings = null;
+			if (!settingsModified(settings)) return;
+			m_sentSettings = settings;
 		}
+
+		for (Observer obs : this.observerList)
+			obs.update(settings);
 	}// updateObserver
 
 	/**
 	 * This method returns an integer array containing all the settings of
-	 * SettingsList. It is meant to be called from within the overridden method
-	 * updateObserver().
+	 * SettingsList. It is meant to be called from the event thread, when a
+	 * spinner changes.
 	 * 
 	 * @return an integer array of the settings
 	 */
 	protected int[] getSettings()
 	{
-		int[] settings = new int[4];
+		int[] settings = new int[5];
 		settings[0] = getLanes();
 		settings[1] = getRadius();
 		settings[2] = getStopTime();
 		settings[3] = getCarFlow();
+		settings[4] = getTimeStep();
 		return settings;
 	}// getSettings
 
 	/**
-	 * Informs whether or not the settings have been modified
+	 * Informs whether or not the settings differ from the last ones sent. The
+	 * caller must hold m_settingsLock.
 	 * 
+	 * @param settings
+	 *            - an integer array of the settings, null if there are none
 	 * @return true if settings have been modified
 	 */
-	protected boolean settingsModified()
+	protected boolean settingsModified(int[] settings)
 	{
-		if (Integer.parseInt(lanes.getValue().toString()) != m_lanes || Integer.parseInt(radius.getValue().toString()) != m_radius
-				|| Integer.parseInt(stopTime.getValue().toString()) != m_stopTime || Integer.parseInt(carFlow.getValue().toString()) != m_carFlow)
-		{
-			return true;
-		}
-		return false;
+		return settings != null && !Arrays.equals(settings, m_sentSettings);
 	}
 
 }// class SettingsList
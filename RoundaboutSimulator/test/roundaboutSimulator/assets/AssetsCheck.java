@@ -0,0 +1,45 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.assets;
+
+import java.io.File;
+
+/**
+ * Checks that the images are found on the classpath, so they load whatever
+ * the working directory. Run it with the compiled classes and src on the
+ * classpath, from a directory without the images. It exits with 1 if an
+ * image isn't found.
+ */
+public class AssetsCheck
+{
+	private static final String[]	NAMES	= { Assets.BLUE_CAR, Assets.NO_RESULTS, Assets.TITLE };
+
+	public static void main(String args[])
+	{
+		int nbFailed = 0;
+		for (String name : NAMES)
+		{
+			// Found by the lookup of Assets, not by its working directory
+			// fallback
+			boolean isOnClasspath = Assets.class.getResource("/image/" + name) != null;
+			boolean isLoaded = Assets.get(name) != null;
+
+			System.out.println((isOnClasspath && isLoaded ? "ok     " : "FAILED ") + name);
+			if (!isOnClasspath || !isLoaded) nbFailed++;
+		}
+
+		if (new File("src/image").isDirectory() || new File("image").isDirectory())
+		{
+			System.out.println("AssetsCheck: run from another directory to rule out the fallback");
+		}
+		if (nbFailed > 0)
+		{
+			System.out.println("AssetsCheck failed: " + nbFailed + " images aren't on the classpath");
+			System.exit(1);
+		}
+		System.out.println("AssetsCheck: every image was loaded from the classpath");
+	}// main
+
+}// class AssetsCheck
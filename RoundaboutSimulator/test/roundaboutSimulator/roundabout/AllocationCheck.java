@@ -0,0 +1,69 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Checks that stepping a simulation whose traffic is steady doesn't allocate:
+ * the VehicleStore recycles its slots and the queues keep their arrays. Run it
+ * with the classes of src on the classpath. It exits with 1 if a step
+ * allocated.
+ */
+public class AllocationCheck
+{
+	private static final int	WARM_UP_STEPS	= 200000;
+	private static final int	CHECKED_STEPS	= 100000;
+
+	// {lanes, radius, stop time, car flow, time step}. The roundabout isn't
+	// congested, so the backlogs don't grow.
+	private static final int[]	SETTINGS		= { 6, 30, 10, 60, 50 };
+
+	public static void main(String args[])
+	{
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean))
+		{
+			System.out.println("AllocationCheck skipped: the JVM doesn't count allocated bytes");
+			return;
+		}
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemorySupported())
+		{
+			System.out.println("AllocationCheck skipped: the JVM doesn't count allocated bytes");
+			return;
+		}
+		threads.setThreadAllocatedMemoryEnabled(true);
+		long thread = Thread.currentThread().getId();
+
+		Simulation simulation = new Simulation(1);
+		simulation.applySettings(SETTINGS);
+
+		// Until the columns, the queues and the compiled code stop changing
+		for (int i = 0; i < WARM_UP_STEPS; i++)
+		{
+			simulation.step();
+		}
+
+		// What reading the counter allocates itself
+		long start = threads.getThreadAllocatedBytes(thread);
+		long overhead = threads.getThreadAllocatedBytes(thread) - start;
+
+		long before = threads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < CHECKED_STEPS; i++)
+		{
+			simulation.step();
+		}
+		long allocated = threads.getThreadAllocatedBytes(thread) - before - overhead;
+
+		System.out.println("AllocationCheck: " + allocated + " bytes over " + CHECKED_STEPS + " steps, " + simulation.vehicleCount()
+				+ " vehicles");
+		if (allocated > 0)
+		{
+			System.out.println("AllocationCheck failed: stepping a steady simulation allocates");
+			System.exit(1);
+		}
+	}// main
+
+}// class AllocationCheck
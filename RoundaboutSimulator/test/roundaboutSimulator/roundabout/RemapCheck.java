@@ -0,0 +1,105 @@
+/*
+    Copyright (c) 2013, Maxime Dupuis, Philippe Roy Villeneuve 
+*/
+
+package roundaboutSimulator.roundabout;
+
+/**
+ * Checks that a vehicle inside the roundabout takes the next exit to its new
+ * destination when the number of lanes changes: a vehicle just before the
+ * exit leaves right away, and a vehicle just past it does one more turn
+ * instead of jumping back to it. Run it with the classes of src on the
+ * classpath. It exits with 1 if a vehicle misses its exit.
+ */
+public class RemapCheck
+{
+	private static final int	RADIUS		= 15;	// Meters
+	private static final int	TIME_STEP	= 50;	// Milliseconds
+
+	// From 4 lanes to 6, destination 1 goes to 2 and 3 goes to 5, the last
+	// lane
+	private static final int	OLD_NB_LANE	= 4;
+	private static final int	NEW_NB_LANE	= 6;
+
+	// Angle between the vehicle and its new exit
+	private static final float	MARGIN		= 0.01f;	// Radians
+
+	private static int			s_nbFailed	= 0;
+
+	public static void main(String args[])
+	{
+		for (int source = 0; source < OLD_NB_LANE; source++)
+		{
+			check(source, 1, 2, MARGIN);
+			check(source, 1, 2, -MARGIN);
+			check(source, 3, 5, MARGIN);
+			check(source, 3, 5, -MARGIN);
+		}
+
+		if (s_nbFailed > 0)
+		{
+			System.out.println("RemapCheck failed: " + s_nbFailed + " vehicles missed their exit");
+			System.exit(1);
+		}
+		System.out.println("RemapCheck: every vehicle took the next exit");
+	}// main
+
+	/**
+	 * Puts a vehicle inside the roundabout close to the exit of its new
+	 * destination, changes the number of lanes and checks how far it goes
+	 * before it leaves.
+	 * 
+	 * @param source
+	 *            - lane the vehicle came from, before the change
+	 * @param destination
+	 *            - destination before the change
+	 * @param newDestination
+	 *            - destination after the change
+	 * @param margin
+	 *            - radians left to the new exit, negative when the vehicle
+	 *            is past it
+	 */
+	private static void check(int source, int destination, int newDestination, float margin)
+	{
+		Simulation simulation = new Simulation(1);
+		simulation.applySettings(new int[] { OLD_NB_LANE, RADIUS, 0, 1, TIME_STEP });
+
+		// The first vehicle arrives at time 0, the next one a minute later
+		VehicleStore vehicles = simulation.getVehicles();
+		int slot = VehicleStore.NONE;
+		while (slot == VehicleStore.NONE || vehicles.m_state[slot] != VehicleStore.INSIDE)
+		{
+			simulation.step();
+			slot = vehicles.first();
+		}
+
+		// Where the vehicle reaches its new exit, the same as in
+		// Simulation.angleToExit()
+		float exit = Vehicle.LENGTH / RADIUS + (float) (2 * Math.PI * newDestination / NEW_NB_LANE);
+		vehicles.m_source[slot] = (short) source;
+		vehicles.m_destination[slot] = (short) destination;
+		vehicles.m_turns[slot] = (byte) ((source <= destination) ? 1 : 0);
+		vehicles.m_theta[slot] = exit + margin;
+
+		simulation.applySettings(new int[] { NEW_NB_LANE, RADIUS, 0, 1, TIME_STEP });
+
+		float start = vehicles.m_theta[slot];
+		float last = start;
+		while (vehicles.m_state[slot] == VehicleStore.INSIDE)
+		{
+			last = vehicles.m_theta[slot];
+			simulation.step();
+		}
+		float covered = start - last;
+
+		// One step of angle, the precision of the exit
+		float step = Vehicle.SPEED * TIME_STEP / 1000f / 3.6f / (RADIUS - Vehicle.WIDTH);
+		float expected = (margin > 0) ? margin : (float) (2 * Math.PI) + margin;
+		boolean isOk = vehicles.m_destination[slot] == newDestination && Math.abs(covered - expected) <= step;
+
+		System.out.println((isOk ? "ok     " : "FAILED ") + "lane " + source + " to " + destination + ", " + margin + " rad from the exit: covered "
+				+ covered + " rad, expected " + expected);
+		if (!isOk) s_nbFailed++;
+	}// check
+
+}// class RemapCheck